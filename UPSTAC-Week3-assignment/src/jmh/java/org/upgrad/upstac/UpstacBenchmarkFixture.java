@@ -0,0 +1,147 @@
+package org.upgrad.upstac;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.upgrad.upstac.testrequests.CreateTestRequest;
+import org.upgrad.upstac.testrequests.TestRequest;
+import org.upgrad.upstac.testrequests.TestRequestService;
+import org.upgrad.upstac.testrequests.TestRequestUpdateService;
+import org.upgrad.upstac.testrequests.consultation.CreateConsultationRequest;
+import org.upgrad.upstac.testrequests.consultation.DoctorSuggestion;
+import org.upgrad.upstac.testrequests.lab.CreateLabResult;
+import org.upgrad.upstac.testrequests.lab.TestStatus;
+import org.upgrad.upstac.users.User;
+import org.upgrad.upstac.users.UserService;
+import org.upgrad.upstac.users.models.Gender;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Boots the application on a random port against the in-memory H2 "test" profile and seeds it
+// through the services, so every request has the lab results, consultations and flow rows a real one has.
+// AppInitializationService creates the default user, tester and doctor on startup.
+public class UpstacBenchmarkFixture implements AutoCloseable {
+
+    private static final AtomicLong contactSequence = new AtomicLong();
+
+    private final ConfigurableApplicationContext context;
+
+    private final User user;
+    private final User tester;
+    private final User doctor;
+
+    private TestRequest lastRequest;
+
+    private UpstacBenchmarkFixture(ConfigurableApplicationContext context) {
+
+        this.context = context;
+
+        UserService userService = context.getBean(UserService.class);
+        user = userService.findByUserName("user");
+        tester = userService.findByUserName("tester");
+        doctor = userService.findByUserName("doctor");
+    }
+
+    public static UpstacBenchmarkFixture start(int requestCount) {
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(UpstacApplication.class)
+                .profiles("test")
+                .properties("server.port=0",
+                        "management.server.port=-1",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.jpa.properties.hibernate.generate_statistics=false")
+                .run();
+
+        UpstacBenchmarkFixture fixture = new UpstacBenchmarkFixture(context);
+        fixture.seed(requestCount);
+        return fixture;
+    }
+
+    // Out of every ten requests: four INITIATED, one LAB_TEST_IN_PROGRESS, two LAB_TEST_COMPLETED,
+    // one DIAGNOSIS_IN_PROCESS and two COMPLETED.
+    private void seed(int requestCount) {
+
+        TestRequestService testRequestService = getBean(TestRequestService.class);
+        TestRequestUpdateService testRequestUpdateService = getBean(TestRequestUpdateService.class);
+
+        for (int i = 0; i < requestCount; i++) {
+
+            TestRequest testRequest = testRequestService.createTestRequestFrom(user, createTestRequest());
+            Long id = testRequest.getRequestId();
+            int bucket = i % 10;
+
+            if (bucket >= 4)
+                testRequestUpdateService.assignForLabTest(id, tester);
+            if (bucket >= 5)
+                testRequestUpdateService.updateLabTest(id, createLabResult(), tester);
+            if (bucket >= 7)
+                testRequestUpdateService.assignForConsultation(id, doctor);
+            if (bucket >= 8)
+                testRequestUpdateService.updateConsultation(id, createConsultationRequest(), doctor);
+
+            lastRequest = testRequest;
+        }
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public User getTester() {
+        return tester;
+    }
+
+    public User getDoctor() {
+        return doctor;
+    }
+
+    public TestRequest getLastRequest() {
+        return lastRequest;
+    }
+
+    // Every call gets its own email and phone number so creates never collide with requests in progress
+    public static CreateTestRequest createTestRequest() {
+
+        long sequence = contactSequence.incrementAndGet();
+
+        CreateTestRequest createTestRequest = new CreateTestRequest();
+        createTestRequest.setName("someuser");
+        createTestRequest.setGender(Gender.MALE);
+        createTestRequest.setAge(40);
+        createTestRequest.setAddress("some address");
+        createTestRequest.setEmail("someone" + sequence + "@somedomain.com");
+        createTestRequest.setPhoneNumber(String.valueOf(9000000000L + sequence));
+        createTestRequest.setPinCode(716768);
+        return createTestRequest;
+    }
+
+    public static CreateLabResult createLabResult() {
+
+        CreateLabResult createLabResult = new CreateLabResult();
+        createLabResult.setBloodPressure("120/80");
+        createLabResult.setHeartBeat("72");
+        createLabResult.setTemperature("98.6");
+        createLabResult.setOxygenLevel("97");
+        createLabResult.setComments("ok");
+        createLabResult.setResult(TestStatus.NEGATIVE);
+        return createLabResult;
+    }
+
+    public static CreateConsultationRequest createConsultationRequest() {
+
+        CreateConsultationRequest createConsultationRequest = new CreateConsultationRequest();
+        createConsultationRequest.setSuggestion(DoctorSuggestion.NO_ISSUES);
+        createConsultationRequest.setComments("ok");
+        return createConsultationRequest;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+}
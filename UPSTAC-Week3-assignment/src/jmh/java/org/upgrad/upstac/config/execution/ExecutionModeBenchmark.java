@@ -0,0 +1,135 @@
+package org.upgrad.upstac.config.execution;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Load test for execution.mode while the database is slow: `backlog` requests keep running queryMillis
+// queries through a 10 connection Hikari pool behind BoundedDataSource, and the benchmark times one more
+// request that needs no database (ping) or one query (query). PLATFORM serves requests from 200 threads
+// like Tomcat's default pool, VIRTUAL from one virtual thread each, which needs a Java 21 JVM:
+// mvn -Pbenchmark test-compile exec:exec -Djmh.include=ExecutionModeBenchmark -Djmh.java=<jdk 21>/bin/java
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djdk.virtualThreadScheduler.parallelism=16")
+public class ExecutionModeBenchmark {
+
+    static final int TOMCAT_MAX_THREADS = 200;
+    static final int POOL_SIZE = 10;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    ExecutionMode mode;
+
+    @Param({"1000"})
+    int backlog;
+
+    @Param({"20"})
+    long queryMillis;
+
+    HikariDataSource pool;
+    BoundedDataSource dataSource;
+    Executor requests;
+    volatile boolean running;
+
+    @Setup
+    public void setUp() throws SQLException {
+
+        pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:execution;DB_CLOSE_DELAY=-1");
+        pool.setUsername("sa");
+        pool.setMaximumPoolSize(POOL_SIZE);
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create alias if not exists SLEEP for \"java.lang.Thread.sleep(long)\"");
+        }
+        dataSource = new BoundedDataSource(pool, POOL_SIZE, TimeUnit.MINUTES.toMillis(1));
+
+        ThreadFactory threadFactory = mode.threadFactory("request");
+        if (mode == ExecutionMode.VIRTUAL)
+            requests = runnable -> threadFactory.newThread(runnable).start();
+        else
+            requests = new ThreadPoolExecutor(TOMCAT_MAX_THREADS, TOMCAT_MAX_THREADS, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), threadFactory);
+
+        running = true;
+        for (int i = 0; i < backlog; i++)
+            requests.execute(this::slowRequest);
+    }
+
+    @TearDown
+    public void tearDown() {
+
+        running = false;
+        if (requests instanceof ThreadPoolExecutor)
+            ((ThreadPoolExecutor) requests).shutdownNow();
+        pool.close();
+    }
+
+    @Benchmark
+    public String ping() throws Exception {
+
+        return serve(() -> "pong");
+    }
+
+    @Benchmark
+    public String query() throws Exception {
+
+        return serve(() -> {
+            runQuery();
+            return "done";
+        });
+    }
+
+    private String serve(Callable<String> request) throws Exception {
+
+        CompletableFuture<String> response = new CompletableFuture<>();
+        requests.execute(() -> {
+            try {
+                response.complete(request.call());
+            } catch (Exception e) {
+                response.completeExceptionally(e);
+            }
+        });
+        return response.get();
+    }
+
+    private void slowRequest() {
+
+        if (!running)
+            return;
+
+        try {
+            runQuery();
+        } catch (SQLException | RuntimeException e) {
+            if (running)
+                throw new IllegalStateException(e);
+            return;
+        }
+
+        try {
+            requests.execute(this::slowRequest);
+        } catch (RejectedExecutionException e) {
+            // tearDown shut the platform pool down after the running check
+        }
+    }
+
+    private void runQuery() throws SQLException {
+
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("call SLEEP(" + queryMillis + ")");
+        }
+    }
+
+}
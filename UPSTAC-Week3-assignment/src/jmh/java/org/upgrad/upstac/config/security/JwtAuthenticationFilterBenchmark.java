@@ -0,0 +1,68 @@
+package org.upgrad.upstac.config.security;
+
+import ch.qos.logback.classic.Level;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.servlet.FilterChain;
+import java.util.concurrent.TimeUnit;
+
+// Throughput of the JWT filter for an already issued token; cacheSize 0 is the uncached baseline
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"0", "10000"})
+    long cacheSize;
+
+    JwtAuthenticationFilter jwtAuthenticationFilter;
+    MockHttpServletRequest request;
+    MockHttpServletResponse response;
+    FilterChain chain = (req, res) -> {
+    };
+
+    @Setup
+    public void setUp() {
+
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        TokenProvider tokenProvider = new TokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "secretKey", "UpgradUPSTAC@%^%@^!@$!@$@#$#$#6763276327");
+        ReflectionTestUtils.setField(tokenProvider, "cacheMaxSize", cacheSize);
+        tokenProvider.initializeCache();
+
+        UserDetails userDetails = new User("tester", "", AuthorityUtils.createAuthorityList("TESTER"));
+        String token = tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(userDetails, "", userDetails.getAuthorities()));
+
+        jwtAuthenticationFilter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "tokenProvider", tokenProvider);
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "userDetailsService", (UserDetailsService) userName -> userDetails);
+
+        request = new MockHttpServletRequest();
+        request.addHeader(JwtAuthenticationFilter.HEADER_STRING, JwtAuthenticationFilter.TOKEN_PREFIX + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Object doFilterInternal() throws Exception {
+
+        jwtAuthenticationFilter.doFilterInternal(request, response, chain);
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+}
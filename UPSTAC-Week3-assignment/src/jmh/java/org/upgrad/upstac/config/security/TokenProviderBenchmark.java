@@ -0,0 +1,61 @@
+package org.upgrad.upstac.config.security;
+
+import ch.qos.logback.classic.Level;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.servlet.ServletException;
+import java.util.concurrent.TimeUnit;
+
+// Signing a new token and validating an issued one; cacheSize 0 is the uncached baseline for validation
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenProviderBenchmark {
+
+    @Param({"0", "10000"})
+    long cacheSize;
+
+    TokenProvider tokenProvider;
+    UserDetails userDetails;
+    Authentication authentication;
+    String token;
+
+    @Setup
+    public void setUp() {
+
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        tokenProvider = new TokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "secretKey", "UpgradUPSTAC@%^%@^!@$!@$@#$#$#6763276327");
+        ReflectionTestUtils.setField(tokenProvider, "cacheMaxSize", cacheSize);
+        tokenProvider.initializeCache();
+
+        userDetails = new User("tester", "", AuthorityUtils.createAuthorityList("TESTER"));
+        authentication = new UsernamePasswordAuthenticationToken(userDetails, "", userDetails.getAuthorities());
+        token = tokenProvider.generateToken(authentication);
+    }
+
+    @Benchmark
+    public String generateToken() {
+
+        return tokenProvider.generateToken(authentication);
+    }
+
+    @Benchmark
+    public UserDetails validateToken() throws ServletException {
+
+        tokenProvider.validateToken(token, userDetails);
+        return userDetails;
+    }
+
+}
@@ -0,0 +1,48 @@
+package org.upgrad.upstac.testrequests;
+
+import org.openjdk.jmh.annotations.*;
+import org.upgrad.upstac.UpstacBenchmarkFixture;
+
+import java.util.concurrent.TimeUnit;
+
+// One request taken from creation to COMPLETED through the same service calls the controllers make
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TestRequestLifecycleBenchmark {
+
+    @Param({"10000"})
+    int requestCount;
+
+    UpstacBenchmarkFixture fixture;
+    TestRequestService testRequestService;
+    TestRequestUpdateService testRequestUpdateService;
+
+    @Setup
+    public void setUp() {
+
+        fixture = UpstacBenchmarkFixture.start(requestCount);
+        testRequestService = fixture.getBean(TestRequestService.class);
+        testRequestUpdateService = fixture.getBean(TestRequestUpdateService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public TestRequest createToCompleted() {
+
+        Long id = testRequestService.createTestRequestFrom(fixture.getUser(), UpstacBenchmarkFixture.createTestRequest()).getRequestId();
+
+        testRequestUpdateService.assignForLabTest(id, fixture.getTester());
+        testRequestUpdateService.updateLabTest(id, UpstacBenchmarkFixture.createLabResult(), fixture.getTester());
+        testRequestUpdateService.assignForConsultation(id, fixture.getDoctor());
+        return testRequestUpdateService.updateConsultation(id, UpstacBenchmarkFixture.createConsultationRequest(), fixture.getDoctor());
+    }
+
+}
@@ -0,0 +1,63 @@
+package org.upgrad.upstac.testrequests;
+
+import org.openjdk.jmh.annotations.*;
+import org.upgrad.upstac.UpstacBenchmarkFixture;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Queue and lookup queries against a seeded H2 database; see UpstacBenchmarkFixture for the status mix
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TestRequestQueryServiceBenchmark {
+
+    @Param({"10000"})
+    int requestCount;
+
+    UpstacBenchmarkFixture fixture;
+    TestRequestQueryService testRequestQueryService;
+    Long requestId;
+
+    @Setup
+    public void setUp() {
+
+        fixture = UpstacBenchmarkFixture.start(requestCount);
+        testRequestQueryService = fixture.getBean(TestRequestQueryService.class);
+        requestId = fixture.getLastRequest().getRequestId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public List<TestRequest> findByStatus() {
+
+        return testRequestQueryService.findBy(RequestStatus.INITIATED);
+    }
+
+    @Benchmark
+    public TestRequestSummaryPage findByStatusFirstPage() {
+
+        return testRequestQueryService.findBy(RequestStatus.INITIATED, null, TestRequestQueryService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<TestRequest> findByTester() {
+
+        return testRequestQueryService.findByTester(fixture.getTester());
+    }
+
+    @Benchmark
+    public Optional<TestRequest> findTestRequestForUserByID() {
+
+        return testRequestQueryService.findTestRequestForUserByID(fixture.getUser(), requestId);
+    }
+
+}
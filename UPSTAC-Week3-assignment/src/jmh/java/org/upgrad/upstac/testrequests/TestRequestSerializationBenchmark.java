@@ -0,0 +1,60 @@
+package org.upgrad.upstac.testrequests;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.upgrad.upstac.UpstacBenchmarkFixture;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Jackson cost of a response body: a page of completed requests with their creator, lab result and consultation,
+// written with the application's ObjectMapper, against the TestRequestSummary rows the list endpoints now return.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TestRequestSerializationBenchmark {
+
+    @Param({"1000"})
+    int requestCount;
+
+    UpstacBenchmarkFixture fixture;
+    ObjectMapper objectMapper;
+    List<TestRequest> testRequests;
+    List<TestRequestSummary> summaries;
+
+    @Setup
+    public void setUp() {
+
+        fixture = UpstacBenchmarkFixture.start(requestCount);
+        objectMapper = fixture.getBean(ObjectMapper.class);
+        testRequests = fixture.getBean(TestRequestQueryService.class)
+                .findBy(RequestStatus.COMPLETED)
+                .stream()
+                .limit(TestRequestQueryService.DEFAULT_PAGE_SIZE)
+                .collect(Collectors.toList());
+        summaries = TestRequestSummary.from(testRequests);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public byte[] writeTestRequests() throws JsonProcessingException {
+
+        return objectMapper.writeValueAsBytes(testRequests);
+    }
+
+    @Benchmark
+    public byte[] writeTestRequestSummaries() throws JsonProcessingException {
+
+        return objectMapper.writeValueAsBytes(summaries);
+    }
+
+}
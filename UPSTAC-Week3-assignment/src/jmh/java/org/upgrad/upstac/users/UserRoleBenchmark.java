@@ -0,0 +1,43 @@
+package org.upgrad.upstac.users;
+
+import org.openjdk.jmh.annotations.*;
+import org.upgrad.upstac.users.roles.Role;
+import org.upgrad.upstac.users.roles.UserRole;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+// The four role checks findTestRequestForUserByID makes for an authority user;
+// run with -prof gc to compare gc.alloc.rate.norm of the two paths
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserRoleBenchmark {
+
+    User user;
+
+    @Setup
+    public void setUp() {
+
+        Role role = new Role();
+        role.setName(UserRole.GOVERNMENT_AUTHORITY.name());
+
+        user = new User();
+        user.setRoles(Collections.singleton(role));
+        user.getUserRoles();
+    }
+
+    @Benchmark
+    public boolean streamOverRoles() {
+        return user.doesUserHasRole("USER") || user.doesUserHasRole("TESTER") || user.doesUserHasRole("DOCTOR") || user.doesUserHasRole("GOVERNMENT_AUTHORITY");
+    }
+
+    @Benchmark
+    public boolean enumSetLookup() {
+        return user.doesRoleIsUser() || user.doesRoleIsTester() || user.doesRoleIsDoctor() || user.doesRoleIsAuthority();
+    }
+
+}
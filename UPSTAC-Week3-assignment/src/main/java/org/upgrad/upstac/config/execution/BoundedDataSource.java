@@ -0,0 +1,108 @@
+package org.upgrad.upstac.config.execution;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Lets at most `permits` callers hold a connection at once. With virtual threads there is no thread
+// pool to limit how many requests reach the connection pool, so thousands of them would otherwise
+// queue inside Hikari. A caller that gets no permit within acquireTimeoutMs fails with a
+// SQLTransientConnectionException, which DatabaseBusyHandler answers with a 503, instead of waiting out Hikari's 30s.
+public class BoundedDataSource extends DelegatingDataSource {
+
+    private static final Timer ACQUIRE = Metrics.timer("upstac.jdbc.permit.acquire");
+    private static final Counter REJECTED = Metrics.counter("upstac.jdbc.permit.rejected");
+
+    final Semaphore permits;
+
+    private final long acquireTimeoutMs;
+
+    public BoundedDataSource(DataSource targetDataSource, int permits, long acquireTimeoutMs) {
+        super(targetDataSource);
+        this.permits = new Semaphore(permits, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+
+        Metrics.gauge("upstac.jdbc.permit.available", this.permits, Semaphore::availablePermits);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+
+        acquire();
+        try {
+            return releasedOnClose(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+
+        acquire();
+        try {
+            return releasedOnClose(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquire() throws SQLException {
+
+        long started = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                REJECTED.increment();
+                throw new SQLTransientConnectionException("No database permit free within " + acquireTimeoutMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        } finally {
+            ACQUIRE.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Hibernate and Spring close each connection once, but the permit must not come back twice if one doesn't
+    private Connection releasedOnClose(Connection connection) {
+
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            if (released.compareAndSet(false, true))
+                                try {
+                                    connection.close();
+                                } finally {
+                                    permits.release();
+                                }
+                            return null;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getTargetException();
+                            }
+                    }
+                });
+    }
+
+}
@@ -0,0 +1,29 @@
+package org.upgrad.upstac.config.execution;
+
+import org.springframework.core.NestedRuntimeException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.sql.SQLTransientConnectionException;
+
+// Spring wraps a connection that could not be had in time (a BoundedDataSource without a free permit, or
+// Hikari's connection timeout) in CannotCreateTransactionException or CannotGetJdbcConnectionException.
+// Those become a 503 the client may retry; any other cause is rethrown and stays a 500.
+@RestControllerAdvice
+public class DatabaseBusyHandler {
+
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public void handleConnectionFailure(NestedRuntimeException e, HttpServletResponse response) throws IOException {
+
+        if (!e.contains(SQLTransientConnectionException.class))
+            throw e;
+
+        response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "The database is busy, please retry shortly");
+    }
+
+}
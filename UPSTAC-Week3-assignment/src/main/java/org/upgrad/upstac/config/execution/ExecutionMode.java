@@ -0,0 +1,30 @@
+package org.upgrad.upstac.config.execution;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Which threads serve requests and run the background work (execution.mode)
+public enum ExecutionMode {
+
+    // Tomcat's pool of server.tomcat.threads.max platform threads; once they are all blocked on JDBC
+    // every further request waits in the accept queue, including those that never touch the database
+    PLATFORM,
+
+    // one virtual thread per request, flow-log writer and queue event sender. Needs a Java 21 runtime.
+    // JDBC use is capped by BoundedDataSource instead of by the number of threads; BCrypt keeps its own pool
+    VIRTUAL;
+
+    public ThreadFactory threadFactory(String name) {
+
+        if (this == VIRTUAL)
+            return VirtualThreads.factory(name + "-");
+
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+}
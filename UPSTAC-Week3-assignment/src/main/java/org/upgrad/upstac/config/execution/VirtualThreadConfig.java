@@ -0,0 +1,59 @@
+package org.upgrad.upstac.config.execution;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ThreadFactory;
+
+// execution.mode=VIRTUAL: Tomcat hands every request to a new virtual thread instead of its own pool,
+// and the datasource is wrapped in a BoundedDataSource. server.tomcat.threads.max no longer applies;
+// server.tomcat.max-connections and accept-count still bound how many requests are in flight.
+@Configuration
+@ConditionalOnProperty(name = "execution.mode", havingValue = "VIRTUAL")
+public class VirtualThreadConfig {
+
+    static final int DEFAULT_POOL_SIZE = 10;
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadRequestExecutor() {
+
+        ThreadFactory threadFactory = ExecutionMode.VIRTUAL.threadFactory("http");
+        return protocolHandler -> protocolHandler.setExecutor(runnable -> threadFactory.newThread(runnable).start());
+    }
+
+    // 0 permits takes Hikari's maximum-pool-size, so requests queue here with a short timeout rather than in Hikari
+    @Bean
+    public static BeanPostProcessor boundedDataSourcePostProcessor(@Value("${execution.jdbc.permits:0}") int permits,
+                                                                   @Value("${execution.jdbc.acquire-timeout-ms:2000}") long acquireTimeoutMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+
+                if (!(bean instanceof DataSource) || bean instanceof BoundedDataSource)
+                    return bean;
+
+                int limit = permits;
+                if (limit <= 0 && bean instanceof HikariDataSource)
+                    limit = ((HikariDataSource) bean).getMaximumPoolSize();
+                // an unset maximum-pool-size stays -1 until Hikari starts the pool and applies its default
+                if (limit <= 0)
+                    limit = DEFAULT_POOL_SIZE;
+
+                log.info("Allowing {} concurrent JDBC connections on {}", limit, beanName);
+                return new BoundedDataSource((DataSource) bean, limit, acquireTimeoutMs);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,37 @@
+package org.upgrad.upstac.config.execution;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+// The build targets Java 8, so Thread.ofVirtual() is looked up when the process actually runs on 21+
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    static boolean isSupported() {
+
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    static ThreadFactory factory(String prefix) {
+
+        if (!isSupported())
+            throw new IllegalStateException("execution.mode=VIRTUAL needs a Java 21 runtime, this is " + System.getProperty("java.version"));
+
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            Method name = builder.getMethod("name", String.class, long.class);
+            Method factory = builder.getMethod("factory");
+            return (ThreadFactory) factory.invoke(name.invoke(Thread.class.getMethod("ofVirtual").invoke(null), prefix, 1L));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create virtual thread factory", e);
+        }
+    }
+
+}
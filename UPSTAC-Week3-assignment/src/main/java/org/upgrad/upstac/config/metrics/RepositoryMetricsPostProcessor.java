@@ -0,0 +1,80 @@
+package org.upgrad.upstac.config.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+// Times every call on the application's Spring Data repositories as
+// upstac.repository{repository, method, exception}. The timer is added as the outermost
+// advice of the repository proxy, so it covers the transaction and exception translation too.
+@Component
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+    static final String REPOSITORY_TIMER = "upstac.repository";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+
+        if (bean instanceof Repository && bean instanceof Advised)
+            repositoryInterfaceOf((Advised) bean)
+                    .ifPresent(repository -> ((Advised) bean).addAdvice(0, new TimingInterceptor(repository.getSimpleName())));
+
+        return bean;
+    }
+
+    private static Optional<Class<?>> repositoryInterfaceOf(Advised advised) {
+
+        return Arrays.stream(advised.getProxiedInterfaces())
+                .filter(Repository.class::isAssignableFrom)
+                .filter(type -> type.getName().startsWith("org.upgrad.upstac."))
+                .findFirst();
+    }
+
+    private class TimingInterceptor implements MethodInterceptor {
+
+        private final String repository;
+
+        TimingInterceptor(String repository) {
+            this.repository = repository;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            if (null == registry)
+                return invocation.proceed();
+
+            Timer.Sample sample = Timer.start(registry);
+            String exception = "none";
+            try {
+                return invocation.proceed();
+            } catch (Throwable e) {
+                exception = e.getClass().getSimpleName();
+                throw e;
+            } finally {
+                sample.stop(Timer.builder(REPOSITORY_TIMER)
+                        .tag("repository", repository)
+                        .tag("method", invocation.getMethod().getName())
+                        .tag("exception", exception)
+                        .register(registry));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,144 @@
+package org.upgrad.upstac.config.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.upgrad.upstac.exception.UpgradResponseStatusException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// BCrypt is deliberately slow, so hashing runs on a small fixed pool instead of on every servlet thread.
+// When the pool and its queue are full the caller gets a 503 straight away rather than piling up behind it.
+public class BoundedBCryptPasswordEncoder extends BCryptPasswordEncoder implements DisposableBean {
+
+    static final int MIN_STRENGTH = 10;
+    static final int MAX_STRENGTH = 16;
+
+    private static final Logger log = LoggerFactory.getLogger(BoundedBCryptPasswordEncoder.class);
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2(a|y|b)?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private static final Timer VERIFY = Metrics.timer("upstac.bcrypt.verify");
+    private static final Timer ENCODE = Metrics.timer("upstac.bcrypt.encode");
+    private static final Counter REJECTED = Metrics.counter("upstac.bcrypt.rejected");
+
+    private final int strength;
+
+    // only a configured strength re-encodes stored hashes; a calibrated one differs between restarts and nodes
+    private final boolean reencodeStoredHashes;
+
+    final ThreadPoolExecutor executor;
+
+    public BoundedBCryptPasswordEncoder(int strength, boolean reencodeStoredHashes, int threads, int queueCapacity) {
+        super(strength);
+        this.strength = strength;
+        this.reencodeStoredHashes = reencodeStoredHashes;
+
+        BlockingQueue<Runnable> queue = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, queue,
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Metrics.gauge("upstac.bcrypt.queue.depth", queue, BlockingQueue::size);
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> ENCODE.recordCallable(() -> super.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> VERIFY.recordCallable(() -> super.matches(rawPassword, encodedPassword)));
+    }
+
+    // DaoAuthenticationProvider re-encodes the presented password after a successful login when this is true.
+    // With a configured strength any other cost counts, so lowering it also brings old hashes down to it.
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (!reencodeStoredHashes || encodedPassword == null)
+            return false;
+
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        return matcher.matches() && Integer.parseInt(matcher.group(2)) != strength;
+    }
+
+    <T> T submit(Callable<T> task) {
+
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            REJECTED.increment();
+            throw UpgradResponseStatusException.asServiceUnavailable("Too many login attempts in progress, please retry shortly");
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Picks the highest cost whose hash still fits in targetMillis on this machine, never below MIN_STRENGTH.
+    // Each extra round doubles the work, so one measurement at MIN_STRENGTH is enough to extrapolate.
+    public static int calibrate(long targetMillis) {
+
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(MIN_STRENGTH);
+        probe.encode("calibration");
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 2; i++) {
+            long started = System.nanoTime();
+            probe.encode("calibration");
+            best = Math.min(best, System.nanoTime() - started);
+        }
+
+        double millis = Math.max(best / 1_000_000.0, 1.0);
+        int strength = MIN_STRENGTH;
+        while (strength < MAX_STRENGTH && millis * 2 <= targetMillis) {
+            millis *= 2;
+            strength++;
+        }
+
+        log.info("BCrypt strength calibrated to {} (~{}ms per hash, target {}ms); new hashes use it, stored ones keep their cost" +
+                " until password.bcrypt.strength is set", strength, Math.round(millis), targetMillis);
+        return strength;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+}
@@ -3,6 +3,8 @@ package org.upgrad.upstac.config.security;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -22,6 +24,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     static final String TOKEN_PREFIX = "Bearer ";
     static final String HEADER_STRING = "Authorization";
+    static final String TOKEN_PARAMETER = "access_token";
 
 
     @Autowired
@@ -33,7 +36,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     @Override
     protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain) throws IOException, ServletException {
-        String header = req.getHeader(HEADER_STRING);
+        String header = getAuthorizationHeader(req);
 
         String username = null;
         String authToken = null;
@@ -44,7 +47,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         if (isSecurityContextAuthenticationNotPresent(username)){
-            log.info("security context se");
             setSecurityContextAuthenticationIn(req, username, authToken);
         }
 
@@ -52,6 +54,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         chain.doFilter(req, res);
     }
 
+    // Browsers' EventSource cannot set headers, so the server-sent event endpoints also take the token
+    // as ?access_token=. Only event-stream requests accept it, to keep tokens out of other URLs and logs.
+    String getAuthorizationHeader(HttpServletRequest req) {
+
+        String header = req.getHeader(HEADER_STRING);
+        if (null != header)
+            return header;
+
+        String accept = req.getHeader(HttpHeaders.ACCEPT);
+        String token = req.getParameter(TOKEN_PARAMETER);
+        if ("GET".equals(req.getMethod()) && null != accept && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE) && null != token)
+            return TOKEN_PREFIX + token;
+
+        return null;
+    }
+
     String getAuthTokenFromHeader(String header) {
         return header.replace(TOKEN_PREFIX, "");
     }
@@ -72,7 +90,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         tokenProvider.validateToken(authToken, userDetails);
         UsernamePasswordAuthenticationToken authentication = tokenProvider.getAuthentication(authToken, SecurityContextHolder.getContext().getAuthentication(), userDetails);
         authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
-        logger.info("authenticated user " + username + ", setting security context");
+        log.debug("authenticated user {}, setting security context", username);
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
     }
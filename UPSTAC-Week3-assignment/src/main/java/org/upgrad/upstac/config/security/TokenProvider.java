@@ -1,6 +1,11 @@
 package org.upgrad.upstac.config.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,11 +16,19 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
 import javax.servlet.ServletException;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -31,6 +44,52 @@ public class TokenProvider implements Serializable {
 
     static final String AUTHORITIES_KEY = "scopes";
 
+    @Value("${token.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    // Signature check and claim parsing on a cache miss; Boot adds its registries to the global one
+    private static final Timer JWT_PARSE = Metrics.timer("upstac.jwt.parse");
+
+    // Verified tokens keyed by the SHA-256 of the token, each entry expiring with its token
+    private transient Cache<String, VerifiedToken> verifiedTokens;
+
+
+    @PostConstruct
+    void initializeCache() {
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.getExpiration().getTime() - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    VerifiedToken verify(String token) {
+        return verifiedTokens.get(hash(token), key -> JWT_PARSE.record(() -> new VerifiedToken(getAllClaimsFromToken(token))));
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     public String getUsernameFromToken(String token) {
         return getClaimFromToken(token, Claims::getSubject);
     }
@@ -40,7 +99,7 @@ public class TokenProvider implements Serializable {
     }
 
     public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = getAllClaimsFromToken(token);
+        final Claims claims = verify(token).getClaims();
         return claimsResolver.apply(claims);
     }
 
@@ -83,23 +142,37 @@ public class TokenProvider implements Serializable {
 
     UsernamePasswordAuthenticationToken getAuthentication(final String token, final Authentication existingAuth, final UserDetails userDetails) {
 
-        final JwtParser jwtParser = Jwts.parser().setSigningKey(secretKey);
+        final Collection<? extends GrantedAuthority> authorities = verify(token).getAuthorities();
 
-        final Jws<Claims> claimsJws = jwtParser.parseClaimsJws(token);
+        return new UsernamePasswordAuthenticationToken(userDetails, "", authorities);
+    }
 
-        final Claims claims = claimsJws.getBody();
+    private static final Logger log = LoggerFactory.getLogger(TokenProvider.class);
 
 
+    static class VerifiedToken {
 
-        log.info("claims" + claims.get(AUTHORITIES_KEY).toString());
-        final Collection<? extends GrantedAuthority> authorities =
-                Arrays.stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-                        .map(SimpleGrantedAuthority::new)
-                        .collect(Collectors.toList());
+        private final Claims claims;
+        private final List<GrantedAuthority> authorities;
 
-        return new UsernamePasswordAuthenticationToken(userDetails, "", authorities);
-    }
+        VerifiedToken(Claims claims) {
+            this.claims = claims;
+            this.authorities = Collections.unmodifiableList(Arrays.stream(claims.get(AUTHORITIES_KEY).toString().split(","))
+                    .map(SimpleGrantedAuthority::new)
+                    .collect(Collectors.toList()));
+        }
 
-    private static final Logger log = LoggerFactory.getLogger(TokenProvider.class);
+        Claims getClaims() {
+            return claims;
+        }
+
+        Date getExpiration() {
+            return claims.getExpiration();
+        }
+
+        List<GrantedAuthority> getAuthorities() {
+            return authorities;
+        }
+    }
 
 }
@@ -5,6 +5,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -16,7 +17,7 @@ import java.util.stream.Collectors;
 
 
 @Service(value = "UpgradUserDetailsService")
-public class UpgradUserDetailsService implements UserDetailsService {
+public class UpgradUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
 
 	private UserService userService;
@@ -40,6 +41,18 @@ public class UpgradUserDetailsService implements UserDetailsService {
 		return new org.springframework.security.core.userdetails.User(user.getUserName(), user.getPassword(), getAuthority(user));
 	}
 
+	// Called by DaoAuthenticationProvider after a successful login when the stored hash uses an older BCrypt cost
+	@Override
+	public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+		User user = userService.findByUserName(userDetails.getUsername());
+		if(user == null){
+			return userDetails;
+		}
+		userService.updatePassword(user, newPassword);
+		log.info("updatePassword rehashed password for {}", user.getUserName());
+		return org.springframework.security.core.userdetails.User.withUserDetails(userDetails).password(newPassword).build();
+	}
+
 	private Set<SimpleGrantedAuthority> getAuthority(User user) {
 
 		return user.getRoles()
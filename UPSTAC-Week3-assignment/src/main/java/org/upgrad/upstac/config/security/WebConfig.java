@@ -3,6 +3,7 @@ package org.upgrad.upstac.config.security;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.upgrad.upstac.testrequests.TestRequestSummaryPage;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
@@ -13,7 +14,7 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedMethods("*")
                 .allowedOrigins("*")
                 .allowedHeaders("*")
-                .exposedHeaders("Location", "Access-Control-Allow-Origin");
+                .exposedHeaders("Location", "Access-Control-Allow-Origin", TestRequestSummaryPage.NEXT_CURSOR_HEADER);
 
     }
 }
@@ -2,6 +2,7 @@ package org.upgrad.upstac.config.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -37,9 +38,9 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
     }
 
     @Autowired
-    public void globalUserDetails(AuthenticationManagerBuilder auth) throws Exception {
+    public void globalUserDetails(AuthenticationManagerBuilder auth, BCryptPasswordEncoder encoder) throws Exception {
         auth.userDetailsService(UpgradUserDetailsService)
-                .passwordEncoder(encoder());
+                .passwordEncoder(encoder);
     }
 
     @Bean
@@ -80,7 +81,9 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
                         "/swagger-resources/**",
                         "/configuration/security",
                         "/swagger-ui.html",
-                        "/webjars/**").permitAll()
+                        "/webjars/**",
+                        "/actuator/health",
+                        "/actuator/prometheus").permitAll()
                 .anyRequest().authenticated()
                 .and()
                 .exceptionHandling().authenticationEntryPoint(unauthorizedHandler).and()
@@ -90,9 +93,18 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
 
     }
 
+    // Static with parameters: UserService needs the encoder while this class is still being injected
+    // (through UpgradUserDetailsService), when its @Value fields would not be set yet.
+    // A strength of 0 calibrates the cost of new hashes at startup against password.bcrypt.target-ms; only a
+    // configured strength re-encodes stored hashes
     @Bean
-    public BCryptPasswordEncoder encoder(){
-        return new BCryptPasswordEncoder();
+    public static BCryptPasswordEncoder encoder(@Value("${password.bcrypt.strength:0}") int bcryptStrength,
+                                                @Value("${password.bcrypt.target-ms:250}") long bcryptTargetMillis,
+                                                @Value("${password.bcrypt.threads:0}") int bcryptThreads,
+                                                @Value("${password.bcrypt.queue-capacity:32}") int bcryptQueueCapacity) {
+        int strength = bcryptStrength > 0 ? bcryptStrength : BoundedBCryptPasswordEncoder.calibrate(bcryptTargetMillis);
+        int threads = bcryptThreads > 0 ? bcryptThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedBCryptPasswordEncoder(strength, bcryptStrength > 0, threads, bcryptQueueCapacity);
     }
 
 }
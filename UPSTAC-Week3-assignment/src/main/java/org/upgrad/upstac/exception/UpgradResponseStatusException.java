@@ -38,6 +38,9 @@ public class UpgradResponseStatusException extends ResponseStatusException {
     public static UpgradResponseStatusException asServerError(String msg) {
         return asExceptionFromHttpStatus(msg, HttpStatus.INTERNAL_SERVER_ERROR);
     }
+    public static UpgradResponseStatusException asServiceUnavailable(String msg) {
+        return asExceptionFromHttpStatus(msg, HttpStatus.SERVICE_UNAVAILABLE);
+    }
    public static UpgradResponseStatusException asNoContent(String msg) {
         return asExceptionFromHttpStatus(msg, HttpStatus.BAD_REQUEST);
     }
@@ -0,0 +1,25 @@
+package org.upgrad.upstac.government;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.upgrad.upstac.testrequests.RequestStatus;
+import org.upgrad.upstac.testrequests.lab.TestStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class DashboardSummary {
+
+    private Map<RequestStatus, Long> requestsByStatus;
+
+    private Map<TestStatus, Long> labResultsByStatus;
+
+    private List<PinCodeSummary> pinCodes;
+
+    // requests created per day
+    private Map<LocalDate, Long> requestsByDay;
+
+}
@@ -0,0 +1,65 @@
+package org.upgrad.upstac.government;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.upgrad.upstac.testrequests.TestRequest;
+
+import javax.persistence.QueryHint;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+public interface GovernmentAnalyticsRepository extends Repository<TestRequest, Long> {
+
+    @Query("select t.status, count(t) from TestRequest t group by t.status")
+    List<Object[]> countByStatus();
+
+    @Query("select l.result, count(distinct l.request) from LabResult l where l.result is not null group by l.result")
+    List<Object[]> countByLabResult();
+
+    @Query("select t.created, count(t) from TestRequest t group by t.created")
+    List<Object[]> countByCreated();
+
+    @Query("select new org.upgrad.upstac.government.PinCodeSummary(t.pinCode, count(t)," +
+            " sum(case when l.result = org.upgrad.upstac.testrequests.lab.TestStatus.POSITIVE then 1 else 0 end)," +
+            " sum(case when l.result = org.upgrad.upstac.testrequests.lab.TestStatus.POSITIVE then 0 else 1 end)," +
+            " sum(case when c.suggestion = org.upgrad.upstac.testrequests.consultation.DoctorSuggestion.HOME_QUARANTINE then 1 else 0 end)," +
+            " sum(case when c.suggestion = org.upgrad.upstac.testrequests.consultation.DoctorSuggestion.ADMIT then 1 else 0 end))" +
+            " from TestRequest t join t.labResult l join t.consultation c" +
+            " where t.status = org.upgrad.upstac.testrequests.RequestStatus.COMPLETED and l.result is not null and c.suggestion is not null" +
+            " group by t.pinCode")
+    List<PinCodeSummary> summarizeCompletedByPinCode();
+
+    // Unset filters are null and drop out of the plan as constant conditions; the rest are range predicates served by
+    // the idx_lab_result_pin_code_* indexes, idx_lab_result_spo2_updated_at, idx_lab_result_temperature_updated_at or
+    // idx_lab_result_updated_at. Newest requests first, each page below the last requestId of the one before.
+    @Query("select new org.upgrad.upstac.government.VitalsReading(l.request.requestId, l.pinCode, l.result, l.systolicPressure, l.diastolicPressure," +
+            " l.heartRate, l.bodyTemperature, l.oxygenSaturation, l.updatedAt)" +
+            " from LabResult l" +
+            " where l.updatedAt >= :from and l.updatedAt < :to and l.request.requestId < :before" +
+            " and (:pinCode is null or l.pinCode = :pinCode)" +
+            " and (:oxygenBelow is null or l.oxygenSaturation < :oxygenBelow)" +
+            " and (:temperatureAbove is null or l.bodyTemperature > :temperatureAbove)" +
+            " and (:systolicAbove is null or l.systolicPressure > :systolicAbove)" +
+            " order by l.request.requestId desc")
+    List<VitalsReading> findVitals(@Param("from") Instant from, @Param("to") Instant to, @Param("before") Long before, @Param("pinCode") Integer pinCode,
+                                   @Param("oxygenBelow") BigDecimal oxygenBelow, @Param("temperatureAbove") BigDecimal temperatureAbove,
+                                   @Param("systolicAbove") Short systolicAbove, Pageable pageable);
+
+    // Forward-only cursor of DTOs, nothing is attached to the persistence context.
+    // MySQL only honours the fetch size with useCursorFetch=true on the connection URL.
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select new org.upgrad.upstac.government.TestRequestExportRow(t.requestId, t.created, t.status, t.name, t.gender, t.age, t.pinCode," +
+            " l.result, l.bloodPressure, l.heartBeat, l.temperature, l.oxygenLevel, l.updatedOn, c.suggestion, c.updatedOn)" +
+            " from TestRequest t left join t.labResult l left join t.consultation c" +
+            " order by t.requestId")
+    Stream<TestRequestExportRow> streamForExport();
+
+}
@@ -0,0 +1,112 @@
+package org.upgrad.upstac.government;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.upgrad.upstac.exception.AppException;
+import org.upgrad.upstac.testrequests.TestRequestQueryService;
+import org.upgrad.upstac.testrequests.TestRequestSummary;
+import org.upgrad.upstac.testrequests.TestRequestTurnaroundMetrics;
+import org.upgrad.upstac.testrequests.TransitionLatency;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.upgrad.upstac.exception.UpgradResponseStatusException.asBadRequest;
+
+
+@RestController
+@RequestMapping("/api/government")
+public class GovernmentController {
+
+    Logger log = LoggerFactory.getLogger(GovernmentController.class);
+
+
+    @Autowired
+    private TestRequestAnalytics testRequestAnalytics;
+
+    @Autowired
+    private TestRequestQueryService testRequestQueryService;
+
+    @Autowired
+    private TestRequestExportService testRequestExportService;
+
+    @Autowired
+    private TestRequestTurnaroundMetrics testRequestTurnaroundMetrics;
+
+    @Autowired
+    private VitalsSearchService vitalsSearchService;
+
+
+    @GetMapping("/dashboard")
+    @PreAuthorize("hasAnyRole('GOVERNMENT_AUTHORITY')")
+    public DashboardSummary getDashboard() {
+
+        return testRequestAnalytics.getSummary();
+    }
+
+    @GetMapping("/pincodes")
+    @PreAuthorize("hasAnyRole('GOVERNMENT_AUTHORITY')")
+    public List<PinCodeSummary> getPinCodes() {
+
+        return testRequestAnalytics.getPinCodes();
+    }
+
+    // Wait-time percentiles per status transition, from this instance's in-memory histograms
+    @GetMapping("/turnaround")
+    @PreAuthorize("hasAnyRole('GOVERNMENT_AUTHORITY')")
+    public List<TransitionLatency> getTurnaround() {
+
+        return testRequestTurnaroundMetrics.getLatencies();
+    }
+
+    @GetMapping("/all-requests")
+    @PreAuthorize("hasAnyRole('GOVERNMENT_AUTHORITY')")
+    public ResponseEntity<List<TestRequestSummary>> getAllRequests(@RequestParam(required = false) Long cursor, @RequestParam(required = false) Integer size) {
+
+        return testRequestQueryService.findAll(cursor, size).asResponse();
+    }
+
+    // e.g. /vitals?pinCode=110001&oxygenBelow=92 for the last week; dates are UTC days, both inclusive
+    @GetMapping("/vitals")
+    @PreAuthorize("hasAnyRole('GOVERNMENT_AUTHORITY')")
+    public ResponseEntity<List<VitalsReading>> searchVitals(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                            @RequestParam(required = false) Integer pinCode,
+                                                            @RequestParam(required = false) BigDecimal oxygenBelow,
+                                                            @RequestParam(required = false) BigDecimal temperatureAbove,
+                                                            @RequestParam(required = false) Short systolicAbove,
+                                                            @RequestParam(required = false) Long cursor,
+                                                            @RequestParam(required = false) Integer size) {
+
+        try {
+            return vitalsSearchService.search(from, to, pinCode, oxygenBelow, temperatureAbove, systolicAbove, cursor, size).asResponse();
+        } catch (AppException e) {
+            throw asBadRequest(e.getMessage());
+        }
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('GOVERNMENT_AUTHORITY')")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "CSV") ExportFormat format) {
+
+        StreamingResponseBody body = outputStream -> testRequestExportService.export(format, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"test-requests." + format.getExtension() + "\"")
+                .body(body);
+    }
+
+}
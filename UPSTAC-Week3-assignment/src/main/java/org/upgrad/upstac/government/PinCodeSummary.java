@@ -0,0 +1,20 @@
+package org.upgrad.upstac.government;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Completed requests of one pin code, with the same field names the authority dashboard uses
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PinCodeSummary {
+
+    private Integer pinCode;
+    private long testedCount;
+    private long positiveCount;
+    private long negativeCount;
+    private long homeQuarantineCount;
+    private long admittedCount;
+
+}
@@ -0,0 +1,169 @@
+package org.upgrad.upstac.government;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.upgrad.upstac.testrequests.RequestStatus;
+import org.upgrad.upstac.testrequests.TestRequest;
+import org.upgrad.upstac.testrequests.TestRequestStatusChangedEvent;
+import org.upgrad.upstac.testrequests.consultation.DoctorSuggestion;
+import org.upgrad.upstac.testrequests.lab.TestStatus;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+// Dashboard counters kept in memory. They are loaded once with GROUP BY queries at startup and
+// then moved by the committed status changes, so reading them costs O(buckets), not O(requests).
+// Changes made by another instance are only picked up on its restart or on reload().
+@Component
+public class TestRequestAnalytics {
+
+    @Autowired
+    private GovernmentAnalyticsRepository governmentAnalyticsRepository;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final Map<RequestStatus, LongAdder> requestsByStatus = new ConcurrentHashMap<>();
+    private final Map<TestStatus, LongAdder> labResultsByStatus = new ConcurrentHashMap<>();
+    private final Map<LocalDate, LongAdder> requestsByDay = new ConcurrentHashMap<>();
+    private final Map<Integer, PinCodeCounter> pinCodes = new ConcurrentHashMap<>();
+
+    private static final Logger log = LoggerFactory.getLogger(TestRequestAnalytics.class);
+
+
+    @PostConstruct
+    public synchronized void reload() {
+
+        requestsByStatus.clear();
+        labResultsByStatus.clear();
+        requestsByDay.clear();
+        pinCodes.clear();
+
+        for (RequestStatus status : RequestStatus.values())
+            counterFor(requestsByStatus, status);
+        for (TestStatus result : TestStatus.values())
+            counterFor(labResultsByStatus, result);
+
+        for (Object[] row : governmentAnalyticsRepository.countByStatus())
+            counterFor(requestsByStatus, (RequestStatus) row[0]).add((Long) row[1]);
+
+        for (Object[] row : governmentAnalyticsRepository.countByLabResult())
+            counterFor(labResultsByStatus, (TestStatus) row[0]).add((Long) row[1]);
+
+        for (Object[] row : governmentAnalyticsRepository.countByCreated())
+            counterFor(requestsByDay, (LocalDate) row[0]).add((Long) row[1]);
+
+        for (PinCodeSummary summary : governmentAnalyticsRepository.summarizeCompletedByPinCode())
+            if (null != summary.getPinCode())
+                pinCodes.computeIfAbsent(summary.getPinCode(), key -> new PinCodeCounter()).add(summary);
+
+        log.info("Loaded analytics for {} pin codes", pinCodes.size());
+    }
+
+    // One upstac.testrequest.queue.depth gauge per status, read from the counters above
+    @PostConstruct
+    public void registerGauges() {
+
+        meterRegistry.ifAvailable(registry -> {
+            for (RequestStatus status : RequestStatus.values())
+                Gauge.builder("upstac.testrequest.queue.depth", requestsByStatus, counters -> counterFor(counters, status).sum())
+                        .tag("status", status.name())
+                        .register(registry);
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(TestRequestStatusChangedEvent event) {
+
+        TestRequest testRequest = event.getTestRequest();
+
+        if (event.isCreated())
+            counterFor(requestsByDay, testRequest.getCreated()).increment();
+        else
+            counterFor(requestsByStatus, event.getFromStatus()).decrement();
+
+        counterFor(requestsByStatus, event.getToStatus()).increment();
+
+        if (event.getToStatus() == RequestStatus.LAB_TEST_COMPLETED && null != testRequest.getLabResult() && null != testRequest.getLabResult().getResult())
+            counterFor(labResultsByStatus, testRequest.getLabResult().getResult()).increment();
+
+        if (event.getToStatus() == RequestStatus.COMPLETED && null != testRequest.getPinCode()
+                && null != testRequest.getLabResult() && null != testRequest.getConsultation())
+            pinCodes.computeIfAbsent(testRequest.getPinCode(), key -> new PinCodeCounter())
+                    .add(testRequest.getLabResult().getResult(), testRequest.getConsultation().getSuggestion());
+    }
+
+    public DashboardSummary getSummary() {
+
+        return new DashboardSummary(
+                snapshot(requestsByStatus, new EnumMap<>(RequestStatus.class)),
+                snapshot(labResultsByStatus, new EnumMap<>(TestStatus.class)),
+                getPinCodes(),
+                snapshot(requestsByDay, new TreeMap<>()));
+    }
+
+    public List<PinCodeSummary> getPinCodes() {
+
+        return pinCodes.entrySet().stream()
+                .map(entry -> entry.getValue().toSummary(entry.getKey()))
+                .sorted((first, second) -> Integer.compare(first.getPinCode(), second.getPinCode()))
+                .collect(Collectors.toList());
+    }
+
+    private static <K> LongAdder counterFor(Map<K, LongAdder> counters, K key) {
+        return counters.computeIfAbsent(key, k -> new LongAdder());
+    }
+
+    private static <K, M extends Map<K, Long>> M snapshot(Map<K, LongAdder> counters, M result) {
+        counters.forEach((key, counter) -> result.put(key, counter.sum()));
+        return result;
+    }
+
+
+    private static class PinCodeCounter {
+
+        private final LongAdder tested = new LongAdder();
+        private final LongAdder positive = new LongAdder();
+        private final LongAdder negative = new LongAdder();
+        private final LongAdder homeQuarantine = new LongAdder();
+        private final LongAdder admitted = new LongAdder();
+
+        void add(TestStatus result, DoctorSuggestion suggestion) {
+            tested.increment();
+            if (result == TestStatus.POSITIVE)
+                positive.increment();
+            else
+                negative.increment();
+            if (suggestion == DoctorSuggestion.HOME_QUARANTINE)
+                homeQuarantine.increment();
+            else if (suggestion == DoctorSuggestion.ADMIT)
+                admitted.increment();
+        }
+
+        void add(PinCodeSummary summary) {
+            tested.add(summary.getTestedCount());
+            positive.add(summary.getPositiveCount());
+            negative.add(summary.getNegativeCount());
+            homeQuarantine.add(summary.getHomeQuarantineCount());
+            admitted.add(summary.getAdmittedCount());
+        }
+
+        PinCodeSummary toSummary(Integer pinCode) {
+            return new PinCodeSummary(pinCode, tested.sum(), positive.sum(), negative.sum(), homeQuarantine.sum(), admitted.sum());
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+package org.upgrad.upstac.government;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.upgrad.upstac.testrequests.RequestStatus;
+import org.upgrad.upstac.testrequests.consultation.DoctorSuggestion;
+import org.upgrad.upstac.testrequests.lab.TestStatus;
+import org.upgrad.upstac.users.models.Gender;
+
+import java.time.LocalDate;
+
+// One flattened request with its lab result and consultation, as written by the export
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TestRequestExportRow {
+
+    static final String[] COLUMNS = {"requestId", "created", "status", "name", "gender", "age", "pinCode",
+            "result", "bloodPressure", "heartBeat", "temperature", "oxygenLevel", "testedOn",
+            "suggestion", "consultedOn"};
+
+    private Long requestId;
+    private LocalDate created;
+    private RequestStatus status;
+    private String name;
+    private Gender gender;
+    private Integer age;
+    private Integer pinCode;
+
+    private TestStatus result;
+    private String bloodPressure;
+    private String heartBeat;
+    private String temperature;
+    private String oxygenLevel;
+    private LocalDate testedOn;
+
+    private DoctorSuggestion suggestion;
+    private LocalDate consultedOn;
+
+    Object[] values() {
+        return new Object[]{requestId, created, status, name, gender, age, pinCode,
+                result, bloodPressure, heartBeat, temperature, oxygenLevel, testedOn,
+                suggestion, consultedOn};
+    }
+}
@@ -0,0 +1,113 @@
+package org.upgrad.upstac.government;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Writes every request row by row from a database cursor, so memory use does not grow with the table.
+// The write happens on the async response thread, hence the explicit read-only transaction.
+@Service
+public class TestRequestExportService {
+
+    @Autowired
+    private GovernmentAnalyticsRepository governmentAnalyticsRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private static final Logger log = LoggerFactory.getLogger(TestRequestExportService.class);
+
+
+    @PostConstruct
+    void initializeTransaction() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    public long export(ExportFormat format, OutputStream outputStream) {
+
+        Long count = readOnlyTransaction.execute(status -> {
+            try (Stream<TestRequestExportRow> rows = governmentAnalyticsRepository.streamForExport()) {
+                return (format == ExportFormat.CSV) ? writeCsv(rows.iterator(), outputStream) : writeNdjson(rows.iterator(), outputStream);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        log.info("Exported {} test requests as {}", count, format);
+        return count;
+    }
+
+    long writeCsv(Iterator<TestRequestExportRow> rows, OutputStream outputStream) throws IOException {
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writeCsvLine(writer, TestRequestExportRow.COLUMNS);
+
+        long count = 0;
+        while (rows.hasNext()) {
+            writeCsvLine(writer, rows.next().values());
+            count++;
+        }
+
+        writer.flush();
+        return count;
+    }
+
+    long writeNdjson(Iterator<TestRequestExportRow> rows, OutputStream outputStream) throws IOException {
+
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+
+        long count = 0;
+        while (rows.hasNext()) {
+            generator.writeObject(rows.next());
+            generator.writeRaw('\n');
+            count++;
+        }
+
+        generator.flush();
+        return count;
+    }
+
+    private static void writeCsvLine(Writer writer, Object[] values) throws IOException {
+
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0)
+                writer.write(',');
+            if (null != values[i])
+                writer.write(asCsvField(values[i].toString()));
+        }
+        writer.write("\r\n");
+    }
+
+    static String asCsvField(String value) {
+
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0)
+            return value;
+
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+}
@@ -0,0 +1,27 @@
+package org.upgrad.upstac.government;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.upgrad.upstac.testrequests.lab.TestStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// Typed vitals of one lab result with the request's pin code, as returned by the vitals search
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VitalsReading {
+
+    private Long requestId;
+    private Integer pinCode;
+    private TestStatus result;
+    private Short systolicPressure;
+    private Short diastolicPressure;
+    private Short heartRate;
+    private BigDecimal bodyTemperature;
+    private BigDecimal oxygenSaturation;
+    private Instant updatedAt;
+
+}
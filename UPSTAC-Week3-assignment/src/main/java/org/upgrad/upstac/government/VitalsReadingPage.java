@@ -0,0 +1,38 @@
+package org.upgrad.upstac.government;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.http.ResponseEntity;
+import org.upgrad.upstac.testrequests.TestRequestSummaryPage;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class VitalsReadingPage {
+
+    private List<VitalsReading> items;
+
+    // requestId to pass as the cursor of the next call, null on the last page
+    private Long nextCursor;
+
+
+    static VitalsReadingPage of(List<VitalsReading> fetched, int pageSize) {
+
+        if (fetched.size() <= pageSize)
+            return new VitalsReadingPage(fetched, null);
+
+        List<VitalsReading> items = fetched.subList(0, pageSize);
+        return new VitalsReadingPage(items, items.get(pageSize - 1).getRequestId());
+    }
+
+    public ResponseEntity<List<VitalsReading>> asResponse() {
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+
+        if (null != nextCursor)
+            response.header(TestRequestSummaryPage.NEXT_CURSOR_HEADER, nextCursor.toString());
+
+        return response.body(items);
+    }
+}
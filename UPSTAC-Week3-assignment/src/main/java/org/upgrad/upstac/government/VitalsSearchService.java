@@ -0,0 +1,44 @@
+package org.upgrad.upstac.government;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.upgrad.upstac.exception.AppException;
+import org.upgrad.upstac.testrequests.TestRequestQueryService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+// Clinical filters over the typed lab result columns. Every predicate is part of the SQL, so only
+// matching rows leave the database; the date window is always bounded to keep the range scans short.
+@Service
+public class VitalsSearchService {
+
+    static final int DEFAULT_DAYS = 7;
+
+    @Autowired
+    private GovernmentAnalyticsRepository governmentAnalyticsRepository;
+
+
+    public VitalsReadingPage search(LocalDate from, LocalDate to, Integer pinCode, BigDecimal oxygenBelow,
+                                    BigDecimal temperatureAbove, Short systolicAbove, Long cursor, Integer size) {
+
+        LocalDate end = (null == to) ? LocalDate.now(ZoneOffset.UTC) : to;
+        LocalDate start = (null == from) ? end.minusDays(DEFAULT_DAYS) : from;
+        if (start.isAfter(end))
+            throw new AppException("from must not be after to");
+
+        int pageSize = TestRequestQueryService.asPageSize(size);
+        Long beforeRequestId = (null == cursor) ? Long.MAX_VALUE : cursor;
+
+        List<VitalsReading> readings = governmentAnalyticsRepository.findVitals(
+                start.atStartOfDay().toInstant(ZoneOffset.UTC),
+                end.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC),
+                beforeRequestId, pinCode, oxygenBelow, temperatureAbove, systolicAbove,
+                PageRequest.of(0, pageSize + 1));
+        return VitalsReadingPage.of(readings, pageSize);
+    }
+
+}
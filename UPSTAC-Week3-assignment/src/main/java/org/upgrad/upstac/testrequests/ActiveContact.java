@@ -0,0 +1,49 @@
+package org.upgrad.upstac.testrequests;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+
+// One row per normalized email / phone number of a request that is not COMPLETED yet.
+// The key is the primary key, so a second in-progress request for the same contact fails on insert.
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "active_test_request_contact", indexes = {
+        @Index(name = "idx_active_contact_request_id", columnList = "requestId")
+})
+public class ActiveContact implements Persistable<String> {
+
+    @Id
+    private String contactKey;
+
+    @Column(nullable = false)
+    private Long requestId;
+
+    // always inserted, never merged over an existing key
+    @Transient
+    private boolean isNew = true;
+
+    ActiveContact(String contactKey, Long requestId) {
+        this.contactKey = contactKey;
+        this.requestId = requestId;
+    }
+
+    @Override
+    public String getId() {
+        return contactKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
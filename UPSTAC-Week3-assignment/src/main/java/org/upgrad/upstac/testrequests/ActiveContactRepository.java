@@ -0,0 +1,26 @@
+package org.upgrad.upstac.testrequests;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ActiveContactRepository extends JpaRepository<ActiveContact, String> {
+
+    boolean existsByContactKeyIn(Collection<String> contactKeys);
+
+    List<ActiveContact> findByContactKeyIn(Collection<String> contactKeys);
+
+    @Modifying
+    @Query("delete from ActiveContact a where a.requestId = :requestId")
+    int deleteByRequestId(@Param("requestId") Long requestId);
+
+    @Query("select t.requestId, t.email, t.phoneNumber from TestRequest t" +
+            " where t.status <> org.upgrad.upstac.testrequests.RequestStatus.COMPLETED" +
+            " and not exists (select a from ActiveContact a where a.requestId = t.requestId)")
+    List<Object[]> findInProgressRequestsWithoutContacts();
+
+}
@@ -0,0 +1,105 @@
+package org.upgrad.upstac.testrequests;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.upgrad.upstac.exception.AppException;
+
+import javax.transaction.Transactional;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.upgrad.upstac.shared.StringValidator.isNotEmptyOrNull;
+
+// Keeps the active_test_request_contact table in step with the request lifecycle:
+// keys are reserved when a request is created and released once it is COMPLETED.
+@Service
+public class ActiveContactService {
+
+    static final String IN_PROGRESS_MESSAGE = "A Request with same PhoneNumber or Email is already in progress ";
+
+    @Autowired
+    private ActiveContactRepository activeContactRepository;
+
+    private static final Logger log = LoggerFactory.getLogger(ActiveContactService.class);
+
+
+    public static Set<String> keysFor(String email, String phoneNumber) {
+
+        Set<String> keys = new LinkedHashSet<>();
+
+        if (isNotEmptyOrNull(email) && !email.trim().isEmpty())
+            keys.add("email:" + email.trim().toLowerCase(Locale.ROOT));
+
+        String digits = (null == phoneNumber) ? "" : phoneNumber.replaceAll("[^0-9]", "");
+        if (!digits.isEmpty())
+            keys.add("phone:" + digits);
+
+        return keys;
+    }
+
+    public boolean isInProgress(String email, String phoneNumber) {
+
+        Set<String> keys = keysFor(email, phoneNumber);
+        return !keys.isEmpty() && activeContactRepository.existsByContactKeyIn(keys);
+    }
+
+    public Set<String> findInProgress(Collection<String> keys) {
+
+        if (keys.isEmpty())
+            return Collections.emptySet();
+
+        return activeContactRepository.findByContactKeyIn(keys).stream()
+                .map(ActiveContact::getContactKey)
+                .collect(Collectors.toSet());
+    }
+
+    // Flushes so that a concurrent request for the same contact fails here, inside the caller's transaction
+    public void reserve(Collection<TestRequest> testRequests) {
+
+        List<ActiveContact> activeContacts = new ArrayList<>();
+        for (TestRequest testRequest : testRequests)
+            for (String key : keysFor(testRequest.getEmail(), testRequest.getPhoneNumber()))
+                activeContacts.add(new ActiveContact(key, testRequest.getRequestId()));
+
+        try {
+            activeContactRepository.saveAll(activeContacts);
+            activeContactRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw new AppException(IN_PROGRESS_MESSAGE, e);
+        }
+    }
+
+    public void release(TestRequest testRequest) {
+
+        activeContactRepository.deleteByRequestId(testRequest.getRequestId());
+    }
+
+    // Requests created before this table existed get their keys on startup; where two of them
+    // share a contact only the first one is recorded.
+    @EventListener(ContextRefreshedEvent.class)
+    @Transactional
+    public void backfill() {
+
+        Map<String, Long> candidates = new LinkedHashMap<>();
+        for (Object[] row : activeContactRepository.findInProgressRequestsWithoutContacts())
+            for (String key : keysFor((String) row[1], (String) row[2]))
+                candidates.putIfAbsent(key, (Long) row[0]);
+
+        if (candidates.isEmpty())
+            return;
+
+        findInProgress(candidates.keySet()).forEach(candidates::remove);
+
+        activeContactRepository.saveAll(candidates.entrySet().stream()
+                .map(entry -> new ActiveContact(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList()));
+
+        log.info("Backfilled {} active contact keys", candidates.size());
+    }
+
+}
@@ -0,0 +1,25 @@
+package org.upgrad.upstac.testrequests;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTestRequestOutcome {
+
+    public enum Status {
+        CREATED, DUPLICATE_IN_UPLOAD, ALREADY_IN_PROGRESS, INVALID
+    }
+
+    // zero based position of the row in the upload
+    private int row;
+
+    private Status status;
+
+    private Long requestId;
+
+    private String message;
+
+}
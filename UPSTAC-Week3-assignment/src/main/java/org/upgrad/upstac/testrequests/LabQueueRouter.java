@@ -0,0 +1,52 @@
+package org.upgrad.upstac.testrequests;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.upgrad.upstac.exception.AppException;
+import org.upgrad.upstac.users.User;
+
+import java.util.List;
+
+// Routes the INITIATED queue by pin code for LabQueueRouting.PIN_CODE: turns a tester's area into a pin code
+// range that the queries filter on in SQL through idx_test_request_status_pin_code_request_id, so every
+// instance sees the same queue. Requests without a pin code are never routed to a tester in this mode.
+@Component
+public class LabQueueRouter {
+
+    @Value("${labrequests.routing.mode:NATIONAL}")
+    private LabQueueRouting mode;
+
+    @Value("${labrequests.routing.prefix-digits:3}")
+    private int prefixDigits;
+
+    @Autowired
+    private TestRequestRepository testRequestRepository;
+
+
+    public boolean isEnabled() {
+        return mode == LabQueueRouting.PIN_CODE;
+    }
+
+    public PinCodeRange areaOf(User tester) {
+
+        if (null == tester.getPinCode())
+            throw new AppException("Pin code of the tester is not set, the lab queue is routed by pin code");
+
+        return PinCodeRange.around(tester.getPinCode(), prefixDigits);
+    }
+
+    // a keyset page of the area's queue, oldest first and after the cursor
+    public List<TestRequestSummary> pageWithin(PinCodeRange area, Long afterRequestId, int limit) {
+
+        return testRequestRepository.findSummariesByStatusAndPinCodeRange(RequestStatus.INITIATED, area.getFrom(), area.getTo(), afterRequestId, PageRequest.of(0, limit));
+    }
+
+    // the oldest queued ids of the area, at most limit of them
+    public List<Long> oldestWithin(PinCodeRange area, int limit) {
+
+        return testRequestRepository.findIdsByStatusAndPinCodeRange(RequestStatus.INITIATED, area.getFrom(), area.getTo(), PageRequest.of(0, limit));
+    }
+
+}
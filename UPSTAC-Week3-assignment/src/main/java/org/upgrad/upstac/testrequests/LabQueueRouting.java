@@ -0,0 +1,11 @@
+package org.upgrad.upstac.testrequests;
+
+// Which INITIATED requests a tester sees and claims (labrequests.routing.mode)
+public enum LabQueueRouting {
+
+    // the whole national backlog
+    NATIONAL,
+
+    // only requests whose pin code shares the first labrequests.routing.prefix-digits digits with the tester's own
+    PIN_CODE
+}
@@ -0,0 +1,39 @@
+package org.upgrad.upstac.testrequests;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.upgrad.upstac.testrequests.consultation.ConsultationService;
+import org.upgrad.upstac.testrequests.lab.LabResultService;
+
+// One-off data repairs, each off by default: enable one, start the application once and turn it off again
+@Component
+public class MaintenanceRunner implements ApplicationRunner {
+
+    @Autowired
+    private LabResultService labResultService;
+
+    @Autowired
+    private ConsultationService consultationService;
+
+    @Value("${maintenance.compact-duplicates:false}")
+    boolean compactDuplicates;
+
+    @Value("${maintenance.backfill-vitals:false}")
+    boolean backfillVitals;
+
+    @Override
+    public void run(ApplicationArguments args) {
+
+        if (compactDuplicates) {
+            labResultService.compactDuplicates();
+            consultationService.compactDuplicates();
+        }
+
+        if (backfillVitals)
+            labResultService.backfillVitals();
+    }
+
+}
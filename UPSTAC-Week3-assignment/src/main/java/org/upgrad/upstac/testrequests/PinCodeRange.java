@@ -0,0 +1,37 @@
+package org.upgrad.upstac.testrequests;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+// Half-open range [from, to) of six digit pin codes that share a prefix, e.g. 560000-561000 for prefix 560
+@Getter
+@ToString
+@EqualsAndHashCode
+public class PinCodeRange {
+
+    static final int PIN_CODE_DIGITS = 6;
+
+    private final int from;
+
+    private final int to;
+
+    PinCodeRange(int from, int to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    public static PinCodeRange around(int pinCode, int prefixDigits) {
+
+        int width = 1;
+        for (int i = prefixDigits; i < PIN_CODE_DIGITS; i++)
+            width *= 10;
+
+        int from = pinCode / width * width;
+        return new PinCodeRange(from, from + width);
+    }
+
+    public boolean contains(Integer pinCode) {
+        return null != pinCode && pinCode >= from && pinCode < to;
+    }
+}
@@ -9,15 +9,20 @@ import org.upgrad.upstac.users.User;
 import org.upgrad.upstac.users.models.Gender;
 
 import javax.persistence.*;
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Data
 @Entity
 @Setter
 @Getter
+@Table(indexes = {
+        @Index(name = "idx_test_request_status_request_id", columnList = "status,requestId"),
+        @Index(name = "idx_test_request_status_pin_code_request_id", columnList = "status,pinCode,requestId"),
+        @Index(name = "idx_test_request_created_by_request_id", columnList = "created_by_id,requestId desc")
+})
 public class TestRequest {
 
-
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     Long requestId;
@@ -27,8 +32,13 @@ public class TestRequest {
 
     private LocalDate created=LocalDate.now();
 
+    private Instant createdAt;
+
     private RequestStatus status = RequestStatus.INITIATED;
 
+    // when the request entered its current status; null on rows older than this column
+    private Instant statusChangedAt;
+
 
     private String name;
     private Gender gender;
@@ -0,0 +1,194 @@
+package org.upgrad.upstac.testrequests;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.upgrad.upstac.exception.AppException;
+import org.upgrad.upstac.testrequests.BulkTestRequestOutcome.Status;
+import org.upgrad.upstac.users.User;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.stream.Collectors;
+
+// Intake of many registrations in one call, either a JSON array or NDJSON, read row by row.
+// Rows are written in chunks, each chunk in its own transaction with one lookup of the active
+// contact keys and one JDBC batch insert. The batch runs on the transaction's connection and reads
+// the IDENTITY ids back as generated keys, so TestRequest keeps its auto-increment id.
+@Service
+public class TestRequestBulkService {
+
+    public static final int CHUNK_SIZE = 500;
+
+    static final String INSERT = "insert into test_request (created_by_id, created, created_at, status, status_changed_at, name, gender, address, age, email, phone_number, pin_code) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private TestRequestRepository testRequestRepository;
+
+    @Autowired
+    private ActiveContactService activeContactService;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    private static final Logger log = LoggerFactory.getLogger(TestRequestBulkService.class);
+
+
+    @PostConstruct
+    void initializeTransaction() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public List<BulkTestRequestOutcome> createTestRequestsFrom(User user, InputStream inputStream) throws IOException {
+
+        List<BulkTestRequestOutcome> outcomes = new ArrayList<>();
+        Set<String> keysInUpload = new HashSet<>();
+        Map<Integer, CreateTestRequest> chunk = new LinkedHashMap<>();
+
+        int row = 0;
+        try (MappingIterator<CreateTestRequest> rows = objectMapper.readerFor(CreateTestRequest.class).readValues(inputStream)) {
+
+            while (rows.hasNextValue()) {
+
+                CreateTestRequest createTestRequest = rows.nextValue();
+                Set<String> keys = ActiveContactService.keysFor(createTestRequest.getEmail(), createTestRequest.getPhoneNumber());
+
+                if (keys.isEmpty())
+                    outcomes.add(new BulkTestRequestOutcome(row, Status.INVALID, null, "Email or phone number is required"));
+                else if (!Collections.disjoint(keysInUpload, keys))
+                    outcomes.add(new BulkTestRequestOutcome(row, Status.DUPLICATE_IN_UPLOAD, null, "Same email or phone number as an earlier row"));
+                else
+                    chunk.put(row, createTestRequest);
+
+                keysInUpload.addAll(keys);
+
+                if (chunk.size() == CHUNK_SIZE) {
+                    outcomes.addAll(createChunk(user, chunk));
+                    chunk.clear();
+                }
+                row++;
+            }
+
+        } catch (JsonProcessingException e) {
+            outcomes.add(new BulkTestRequestOutcome(row, Status.INVALID, null, "Unreadable row, upload stopped here: " + e.getOriginalMessage()));
+        }
+
+        if (!chunk.isEmpty())
+            outcomes.addAll(createChunk(user, chunk));
+
+        outcomes.sort(Comparator.comparingInt(BulkTestRequestOutcome::getRow));
+        log.info("Bulk intake of {} rows by {}", row, user.getUserName());
+        return outcomes;
+    }
+
+    // A concurrent submission can take one of the keys between the lookup and the insert;
+    // the chunk is then rolled back and retried once, when the lookup will see that key.
+    List<BulkTestRequestOutcome> createChunk(User user, Map<Integer, CreateTestRequest> chunk) {
+
+        try {
+            return createChunkOnce(user, chunk);
+        } catch (AppException e) {
+            log.info("Retrying bulk chunk after a concurrent registration: {}", e.getMessage());
+            return createChunkOnce(user, chunk);
+        }
+    }
+
+    List<BulkTestRequestOutcome> createChunkOnce(User user, Map<Integer, CreateTestRequest> chunk) {
+
+        return transactionTemplate.execute(status -> {
+
+            Map<Integer, Set<String>> keysByRow = new LinkedHashMap<>();
+            chunk.forEach((row, createTestRequest) -> keysByRow.put(row, ActiveContactService.keysFor(createTestRequest.getEmail(), createTestRequest.getPhoneNumber())));
+
+            Set<String> keysInProgress = activeContactService.findInProgress(keysByRow.values().stream()
+                    .flatMap(Set::stream)
+                    .collect(Collectors.toSet()));
+
+            List<BulkTestRequestOutcome> outcomes = new ArrayList<>();
+            Map<Integer, TestRequest> accepted = new LinkedHashMap<>();
+            chunk.forEach((row, createTestRequest) -> {
+                if (!Collections.disjoint(keysInProgress, keysByRow.get(row)))
+                    outcomes.add(new BulkTestRequestOutcome(row, Status.ALREADY_IN_PROGRESS, null, ActiveContactService.IN_PROGRESS_MESSAGE.trim()));
+                else
+                    accepted.put(row, TestRequestService.newTestRequest(user, createTestRequest));
+            });
+
+            insert(accepted.values());
+            activeContactService.reserve(accepted.values());
+
+            accepted.forEach((row, testRequest) -> {
+                applicationEventPublisher.publishEvent(new TestRequestStatusChangedEvent(testRequest, null, RequestStatus.INITIATED, user));
+                outcomes.add(new BulkTestRequestOutcome(row, Status.CREATED, testRequest.getRequestId(), null));
+            });
+
+            return outcomes;
+        });
+    }
+
+    private void insert(Collection<TestRequest> testRequests) {
+
+        if (testRequests.isEmpty())
+            return;
+
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+
+                for (TestRequest testRequest : testRequests) {
+                    statement.setObject(1, null == testRequest.getCreatedBy() ? null : testRequest.getCreatedBy().getId());
+                    statement.setDate(2, Date.valueOf(testRequest.getCreated()));
+                    statement.setTimestamp(3, Timestamp.from(testRequest.getCreatedAt()), utc);
+                    statement.setInt(4, testRequest.getStatus().ordinal());
+                    statement.setTimestamp(5, Timestamp.from(testRequest.getStatusChangedAt()), utc);
+                    statement.setString(6, testRequest.getName());
+                    statement.setObject(7, null == testRequest.getGender() ? null : testRequest.getGender().ordinal());
+                    statement.setString(8, testRequest.getAddress());
+                    statement.setObject(9, testRequest.getAge());
+                    statement.setString(10, testRequest.getEmail());
+                    statement.setString(11, testRequest.getPhoneNumber());
+                    statement.setObject(12, testRequest.getPinCode());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    for (TestRequest testRequest : testRequests) {
+                        if (!keys.next())
+                            throw new IllegalStateException("Missing generated id for bulk test request");
+                        testRequest.setRequestId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+}
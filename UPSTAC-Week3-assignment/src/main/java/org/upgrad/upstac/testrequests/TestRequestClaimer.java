@@ -0,0 +1,94 @@
+package org.upgrad.upstac.testrequests;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.transaction.Transactional;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// Picks the oldest request in a queue and moves it to the next status in the caller's transaction.
+// On MySQL 8 the row is selected FOR UPDATE SKIP LOCKED, so concurrent claimers never wait on each
+// other. Elsewhere (H2, older MySQL) the oldest few ids are read and moved with the conditional
+// update one by one until a row count of 1 says this caller won it.
+@Component
+public class TestRequestClaimer {
+
+    static final int CLAIM_CANDIDATES = 10;
+    static final int CLAIM_ROUNDS = 3;
+
+    static final String SKIP_LOCKED_QUERY = "select request_id from test_request where status = ? order by request_id limit 1 for update skip locked";
+    static final String SKIP_LOCKED_AREA_QUERY = "select request_id from test_request where status = ? and pin_code >= ? and pin_code < ? order by request_id limit 1 for update skip locked";
+
+    @Autowired
+    private TestRequestRepository testRequestRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private boolean skipLocked;
+
+    private static final Logger log = LoggerFactory.getLogger(TestRequestClaimer.class);
+
+
+    @PostConstruct
+    public void detectSkipLocked() {
+
+        skipLocked = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            return "MySQL".equalsIgnoreCase(metaData.getDatabaseProductName()) && metaData.getDatabaseMajorVersion() >= 8;
+        });
+
+        log.info("Claiming test requests with {}", skipLocked ? "SELECT ... FOR UPDATE SKIP LOCKED" : "conditional updates");
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public Optional<Long> claim(RequestStatus from, RequestStatus to) {
+
+        return claim(from, to, null, () -> testRequestRepository.findIdsByStatus(from, PageRequest.of(0, CLAIM_CANDIDATES)));
+    }
+
+    // area, when not null, limits the claim to a pin code range; candidates supplies the ids to try
+    // with conditional updates, oldest first, where SKIP LOCKED is not available
+    @Transactional(Transactional.TxType.MANDATORY)
+    public Optional<Long> claim(RequestStatus from, RequestStatus to, PinCodeRange area, Supplier<List<Long>> candidates) {
+
+        if (skipLocked)
+            return claimSkippingLocked(from, to, area);
+
+        for (int round = 0; round < CLAIM_ROUNDS; round++) {
+
+            List<Long> ids = candidates.get();
+            if (ids.isEmpty())
+                return Optional.empty();
+
+            for (Long id : ids)
+                if (testRequestRepository.updateStatus(id, from, to) == 1)
+                    return Optional.of(id);
+        }
+
+        return Optional.empty();
+    }
+
+    private Optional<Long> claimSkippingLocked(RequestStatus from, RequestStatus to, PinCodeRange area) {
+
+        List<Long> ids = (null == area)
+                ? jdbcTemplate.queryForList(SKIP_LOCKED_QUERY, Long.class, from.ordinal())
+                : jdbcTemplate.queryForList(SKIP_LOCKED_AREA_QUERY, Long.class, from.ordinal(), area.getFrom(), area.getTo());
+        if (ids.isEmpty())
+            return Optional.empty();
+
+        Long id = ids.get(0);
+        testRequestRepository.updateStatus(id, from, to);
+        return Optional.of(id);
+    }
+
+}
@@ -5,13 +5,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import org.upgrad.upstac.config.security.UserLoggedInService;
 import org.upgrad.upstac.exception.AppException;
+import org.upgrad.upstac.testrequests.flow.TestRequestFlowEntry;
+import org.upgrad.upstac.testrequests.flow.TestRequestFlowService;
 import org.upgrad.upstac.users.User;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.util.List;
 
 import static org.upgrad.upstac.exception.UpgradResponseStatusException.asBadRequest;
@@ -32,6 +38,12 @@ public class TestRequestController {
     @Autowired
     private TestRequestQueryService testRequestQueryService;
 
+    @Autowired
+    private TestRequestBulkService testRequestBulkService;
+
+    @Autowired
+    private TestRequestFlowService testRequestFlowService;
+
 
     @PostMapping("/api/testrequests")
     public TestRequest createRequest(@RequestBody CreateTestRequest testRequest) {
@@ -44,14 +56,55 @@ public class TestRequestController {
         }
 
     }
+    // Accepts a JSON array or one JSON object per line (application/x-ndjson)
+    @PostMapping(value = "/api/testrequests/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public List<BulkTestRequestOutcome> createRequests(HttpServletRequest request) {
+        try {
+            User user = userLoggedInService.getLoggedInUser();
+            return testRequestBulkService.createTestRequestsFrom(user, request.getInputStream());
+        } catch (IOException e) {
+            throw asBadRequest(e.getMessage(), e);
+        }
+
+    }
+
     @PreAuthorize("hasAnyRole('USER')")
     @GetMapping("/api/testrequests")
-    public List<TestRequest> requestHistory() {
+    public ResponseEntity<List<TestRequestSummary>> requestHistory(@RequestParam(required = false) Long cursor, @RequestParam(required = false) Integer size) {
 
         User user = userLoggedInService.getLoggedInUser();
-        return testRequestService.getHistoryFor(user);
+        return testRequestService.getHistoryFor(user, cursor, size).asResponse();
+
 
+    }
 
+    // Full request with lab result and consultation, for a row of the history or of a queue the caller may see
+    @PreAuthorize("hasAnyRole('USER','TESTER','DOCTOR','GOVERNMENT_AUTHORITY')")
+    @GetMapping("/api/testrequests/{id}")
+    public TestRequest getTestRequest(@PathVariable Long id) {
+
+        try {
+            User user = userLoggedInService.getLoggedInUser();
+            return testRequestQueryService.findTestRequestForUserByID(user, id)
+                    .orElseThrow(() -> new AppException("Invalid ID"));
+        } catch (AppException e) {
+            throw asBadRequest(e.getMessage());
+        }
+    }
+
+    // /api/testrequests/flow/{id} is the path the UI has always called
+    @GetMapping({"/api/testrequests/{id}/flow", "/api/testrequests/flow/{id}"})
+    public List<TestRequestFlowEntry> getFlow(@PathVariable Long id) {
+
+        User user = userLoggedInService.getLoggedInUser();
+
+        try {
+            TestRequest testRequest = testRequestQueryService.findTestRequestForUserByID(user, id)
+                    .orElseThrow(() -> new AppException("Invalid ID"));
+            return testRequestFlowService.findTimelineFor(testRequest);
+        } catch (AppException e) {
+            throw asBadRequest(e.getMessage());
+        }
     }
 
 
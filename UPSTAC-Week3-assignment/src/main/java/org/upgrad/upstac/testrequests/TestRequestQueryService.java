@@ -3,33 +3,30 @@ package org.upgrad.upstac.testrequests;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 import org.upgrad.upstac.exception.AppException;
-import org.upgrad.upstac.testrequests.consultation.Consultation;
-import org.upgrad.upstac.testrequests.consultation.ConsultationRepository;
-import org.upgrad.upstac.testrequests.lab.LabResult;
-import org.upgrad.upstac.testrequests.lab.LabResultRepository;
 import org.upgrad.upstac.users.User;
+import org.upgrad.upstac.users.roles.UserRole;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
 @Validated
 public class TestRequestQueryService {
 
-    @Autowired
-    private TestRequestRepository testRequestRepository;
-
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
 
     @Autowired
-    private LabResultRepository labResultRepository;
+    private TestRequestRepository testRequestRepository;
 
 
     @Autowired
-    private ConsultationRepository consultationRepository;
+    private LabQueueRouter labQueueRouter;
 
     private static Logger logger = LoggerFactory.getLogger(TestRequestQueryService.class);
 
@@ -53,37 +50,75 @@ public class TestRequestQueryService {
 
     }
 
+    // Keyset page over (status, requestId): rows after the cursor, oldest first.
+    // One extra row is fetched to know whether another page exists.
+    public TestRequestSummaryPage findBy(RequestStatus requestStatus, Long cursor, Integer size) {
+
+        int pageSize = asPageSize(size);
+        Long afterRequestId = (null == cursor) ? 0L : cursor;
+
+        List<TestRequestSummary> summaries = testRequestRepository.findSummariesByStatus(requestStatus, afterRequestId, PageRequest.of(0, pageSize + 1));
+        return TestRequestSummaryPage.of(summaries, pageSize);
+    }
+
+    // The to-be-tested queue as the tester sees it: the whole INITIATED backlog, or with pin code routing
+    // only the tester's pin code area, over (status, pinCode, requestId)
+    public TestRequestSummaryPage findForTester(User tester, Long cursor, Integer size) {
+
+        if (!labQueueRouter.isEnabled())
+            return findBy(RequestStatus.INITIATED, cursor, size);
+
+        PinCodeRange area = labQueueRouter.areaOf(tester);
+        int pageSize = asPageSize(size);
+        Long afterRequestId = (null == cursor) ? 0L : cursor;
+
+        List<TestRequestSummary> summaries = labQueueRouter.pageWithin(area, afterRequestId, pageSize + 1);
+        return TestRequestSummaryPage.of(summaries, pageSize);
+    }
+
+    public TestRequestSummaryPage findAll(Long cursor, Integer size) {
+
+        int pageSize = asPageSize(size);
+        Long afterRequestId = (null == cursor) ? 0L : cursor;
+
+        List<TestRequestSummary> summaries = testRequestRepository.findSummaries(afterRequestId, PageRequest.of(0, pageSize + 1));
+        return TestRequestSummaryPage.of(summaries, pageSize);
+    }
+
+    public static int asPageSize(Integer size) {
+
+        if (null == size || size < 1)
+            return DEFAULT_PAGE_SIZE;
+
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
 
 
     public List<TestRequest> findByTester(User user) {
 
-        return  labResultRepository.findByTester(user)
-                .stream()
-                .map(LabResult::getRequest)
-                .collect(Collectors.toList());
+        return  testRequestRepository.findByTester(user);
 
     }
 
     public List<TestRequest> findByDoctor(User user) {
-        return  consultationRepository.findByDoctor(user)
-                .stream()
-                .map(Consultation::getRequest)
-                .collect(Collectors.toList());
+        return  testRequestRepository.findByDoctor(user);
     }
 
 
     public Optional<TestRequest> findTestRequestForUserByID(User user,Long id) {
 
 
-        logger.info("findTestRequestForUserByID" + user.getRoles().toString());
+        Set<UserRole> roles = user.getUserRoles();
+        logger.debug("findTestRequestForUserByID {} {}", id, roles);
 
-        if(user.doesRoleIsUser())
+        if(roles.contains(UserRole.USER))
             return  findByUserAndID(user,id);
-        else if(user.doesRoleIsTester())
+        else if(roles.contains(UserRole.TESTER))
             return findByTesterAndID(user,id);
-        else if(user.doesRoleIsDoctor())
+        else if(roles.contains(UserRole.DOCTOR))
             return findByDoctorAndID(user,id);
-        else if(user.doesRoleIsAuthority())
+        else if(roles.contains(UserRole.GOVERNMENT_AUTHORITY))
             return testRequestRepository.findByRequestId(id);
         else
             throw new AppException("Invalid Role");
@@ -94,24 +129,12 @@ public class TestRequestQueryService {
 
     public Optional<TestRequest> findByDoctorAndID(User doctor,Long id) {
 
-
-        return  testRequestRepository.findByRequestId(id)
-                .filter(testRequest -> consultationRepository.findByDoctorAndRequest(doctor,testRequest).isPresent());
+        return  testRequestRepository.findByDoctorAndRequestId(doctor,id);
 
     }
     public Optional<TestRequest> findByTesterAndID(User tester,Long id) {
 
-
-
-
-        return  testRequestRepository.findByRequestId(id)
-                .filter(testRequest -> labResultRepository.findByTesterAndRequest(tester,testRequest).isPresent());
-
-
-
-
-
-
+        return  testRequestRepository.findByTesterAndRequestId(tester,id);
 
     }
 
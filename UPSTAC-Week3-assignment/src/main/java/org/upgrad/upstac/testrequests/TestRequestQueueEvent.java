@@ -0,0 +1,27 @@
+package org.upgrad.upstac.testrequests;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Delta sent to work queue subscribers. Clients load the queue once and then apply these:
+// ADDED carries the summary row to append, the same shape as the queue endpoints return;
+// CLAIMED only the id to drop.
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TestRequestQueueEvent {
+
+    public enum Type {
+        ADDED, CLAIMED
+    }
+
+    private final Type type;
+
+    private final RequestStatus queue;
+
+    private final Long requestId;
+
+    private final TestRequestSummary testRequest;
+
+}
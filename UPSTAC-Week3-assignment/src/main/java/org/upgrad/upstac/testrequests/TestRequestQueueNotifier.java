@@ -0,0 +1,213 @@
+package org.upgrad.upstac.testrequests;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.upgrad.upstac.config.execution.ExecutionMode;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Pushes work queue changes to connected testers (INITIATED) and doctors (LAB_TEST_COMPLETED)
+// over server-sent events. Each committed status change is serialized once and queued for every
+// subscriber of the affected queue, so a slow client never holds up the transaction that made the change.
+// Every subscriber has its own bounded buffer, drained by at most one sender task at a time: a client
+// that reads slowly only delays its own events, and one that falls SUBSCRIBER_BUFFER events behind is
+// closed so its EventSource reconnects and reloads the queue. Only changes made by this instance are seen.
+@Component
+public class TestRequestQueueNotifier {
+
+    static final long SUBSCRIPTION_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(30);
+    static final long HEARTBEAT_SECONDS = 30;
+    static final int SUBSCRIBER_BUFFER = 64;
+
+    private static final Counter DROPPED = Metrics.counter("upstac.queue.events.dropped");
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<RequestStatus, List<Subscriber>> subscribers = new EnumMap<>(RequestStatus.class);
+    private final ExecutorService senders;
+    private final ScheduledExecutorService heartbeat;
+    private final AtomicLong eventId = new AtomicLong();
+
+    private static final Logger log = LoggerFactory.getLogger(TestRequestQueueNotifier.class);
+
+
+    public TestRequestQueueNotifier(@Value("${execution.mode:PLATFORM}") ExecutionMode executionMode) {
+
+        // at most one task per subscriber, and the threads go away once buffers are drained
+        senders = Executors.newCachedThreadPool(executionMode.threadFactory("queue-events"));
+        heartbeat = Executors.newSingleThreadScheduledExecutor(executionMode.threadFactory("queue-heartbeat"));
+
+        subscribers.put(RequestStatus.INITIATED, new CopyOnWriteArrayList<>());
+        subscribers.put(RequestStatus.LAB_TEST_COMPLETED, new CopyOnWriteArrayList<>());
+
+        // comment lines keep idle connections open through proxies and reveal clients that went away
+        heartbeat.scheduleWithFixedDelay(this::sendHeartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public SseEmitter subscribe(RequestStatus queue) {
+
+        return register(queue, new SseEmitter(SUBSCRIPTION_TIMEOUT_MS));
+    }
+
+    SseEmitter register(RequestStatus queue, SseEmitter emitter) {
+
+        List<Subscriber> queueSubscribers = subscribers.get(queue);
+        if (null == queueSubscribers)
+            throw new IllegalArgumentException("No work queue for " + queue);
+
+        Subscriber subscriber = new Subscriber(queueSubscribers, emitter);
+        queueSubscribers.add(subscriber);
+        emitter.onCompletion(() -> queueSubscribers.remove(subscriber));
+        emitter.onTimeout(() -> queueSubscribers.remove(subscriber));
+        emitter.onError(error -> queueSubscribers.remove(subscriber));
+        return emitter;
+    }
+
+    int subscriberCount(RequestStatus queue) {
+        return subscribers.get(queue).size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(TestRequestStatusChangedEvent event) {
+
+        TestRequest testRequest = event.getTestRequest();
+
+        if (!event.isCreated() && subscribers.containsKey(event.getFromStatus()))
+            publish(new TestRequestQueueEvent(TestRequestQueueEvent.Type.CLAIMED, event.getFromStatus(), testRequest.getRequestId(), null));
+
+        if (subscribers.containsKey(event.getToStatus()))
+            publish(new TestRequestQueueEvent(TestRequestQueueEvent.Type.ADDED, event.getToStatus(), testRequest.getRequestId(), TestRequestSummary.from(testRequest)));
+    }
+
+    void publish(TestRequestQueueEvent queueEvent) {
+
+        List<Subscriber> queueSubscribers = subscribers.get(queueEvent.getQueue());
+        if (queueSubscribers.isEmpty())
+            return;
+
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(queueEvent);
+        } catch (JsonProcessingException e) {
+            log.error("Could not serialize queue event for request " + queueEvent.getRequestId(), e);
+            return;
+        }
+
+        String name = queueEvent.getType().name().toLowerCase(Locale.ROOT);
+
+        // ids are handed out and queued together so every subscriber sees them in the same order
+        synchronized (queueSubscribers) {
+            String id = String.valueOf(eventId.incrementAndGet());
+            for (Subscriber subscriber : queueSubscribers)
+                subscriber.offer(SseEmitter.event().id(id).name(name).data(data, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    private void sendHeartbeat() {
+
+        for (List<Subscriber> queueSubscribers : subscribers.values())
+            for (Subscriber subscriber : queueSubscribers)
+                subscriber.offer(SseEmitter.event().comment("heartbeat"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+
+        heartbeat.shutdownNow();
+        senders.shutdownNow();
+        subscribers.values().forEach(queueSubscribers -> queueSubscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+
+    private class Subscriber {
+
+        private final List<Subscriber> queueSubscribers;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> pending = new ArrayBlockingQueue<>(SUBSCRIBER_BUFFER);
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(List<Subscriber> queueSubscribers, SseEmitter emitter) {
+            this.queueSubscribers = queueSubscribers;
+            this.emitter = emitter;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+
+            if (!pending.offer(event)) {
+                DROPPED.increment();
+                close(new IllegalStateException("Subscriber fell " + SUBSCRIBER_BUFFER + " events behind"));
+                return;
+            }
+            drain();
+        }
+
+        private void drain() {
+
+            if (!draining.compareAndSet(false, true))
+                return;
+
+            try {
+                senders.execute(this::sendPending);
+            } catch (RejectedExecutionException e) {
+                // shutting down
+                draining.set(false);
+            }
+        }
+
+        private void sendPending() {
+
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (null != (event = pending.poll())) {
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        close(e);
+                        return;
+                    }
+                }
+            } finally {
+                draining.set(false);
+            }
+
+            // an event offered while this task was finishing found draining still set
+            if (!pending.isEmpty())
+                drain();
+        }
+
+        private void close(Exception cause) {
+
+            if (queueSubscribers.remove(this)) {
+                pending.clear();
+                emitter.completeWithError(cause);
+            }
+        }
+    }
+
+}
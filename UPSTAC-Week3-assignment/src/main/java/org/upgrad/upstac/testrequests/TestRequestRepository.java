@@ -1,6 +1,10 @@
 package org.upgrad.upstac.testrequests;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.upgrad.upstac.users.User;
 
 import java.util.List;
@@ -14,7 +18,19 @@ public interface TestRequestRepository extends JpaRepository<TestRequest,Long> {
 
 	List<TestRequest> findByCreatedBy(User user);
 
+	// A user's history, newest first and before the cursor, as summaries: no entity or association is loaded
+	@Query("select new org.upgrad.upstac.testrequests.TestRequestSummary(t.requestId, t.name, t.gender, t.age, t.address, t.pinCode, t.status, t.created, t.statusChangedAt," +
+			" t.createdBy.id, lt.id, l.result, cd.id, c.suggestion)" +
+			" from TestRequest t left join t.labResult l left join l.tester lt left join t.consultation c left join c.doctor cd" +
+			" where t.createdBy = :user and t.requestId < :before order by t.requestId desc")
+	List<TestRequestSummary> findSummariesByCreatedBy(@Param("user") User user, @Param("before") Long before, Pageable pageable);
+
 	Optional<TestRequest> findByRequestIdAndStatus(Long id,RequestStatus status);
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update TestRequest t set t.status = :to where t.requestId = :id and t.status = :from")
+	int updateStatus(@Param("id") Long id, @Param("from") RequestStatus from, @Param("to") RequestStatus to);
+
 	Optional<TestRequest> findByCreatedByAndRequestId(User user,Long id);
 	List<TestRequest> findByEmail(String email);
 	List<TestRequest> findByEmailOrPhoneNumber(String email,String phoneNumber);
@@ -30,6 +46,44 @@ public interface TestRequestRepository extends JpaRepository<TestRequest,Long> {
 	List<TestRequest> findByName(String name);
 
 	List<TestRequest> findByStatus(RequestStatus status);
+
+	@Query("select t.requestId from TestRequest t where t.status = :status order by t.requestId")
+	List<Long> findIdsByStatus(@Param("status") RequestStatus status, Pageable pageable);
+
+	@Query("select t.requestId from TestRequest t where t.status = :status and t.pinCode >= :from and t.pinCode < :to order by t.requestId")
+	List<Long> findIdsByStatusAndPinCodeRange(@Param("status") RequestStatus status, @Param("from") int from, @Param("to") int to, Pageable pageable);
+
+	// Keyset pages for the queues, oldest first and after the cursor, as summaries like findSummariesByCreatedBy
+	@Query("select new org.upgrad.upstac.testrequests.TestRequestSummary(t.requestId, t.name, t.gender, t.age, t.address, t.pinCode, t.status, t.created, t.statusChangedAt," +
+			" t.createdBy.id, lt.id, l.result, cd.id, c.suggestion)" +
+			" from TestRequest t left join t.labResult l left join l.tester lt left join t.consultation c left join c.doctor cd" +
+			" where t.status = :status and t.pinCode >= :from and t.pinCode < :to and t.requestId > :after order by t.requestId asc")
+	List<TestRequestSummary> findSummariesByStatusAndPinCodeRange(@Param("status") RequestStatus status, @Param("from") int from, @Param("to") int to, @Param("after") Long after, Pageable pageable);
+
+	@Query("select new org.upgrad.upstac.testrequests.TestRequestSummary(t.requestId, t.name, t.gender, t.age, t.address, t.pinCode, t.status, t.created, t.statusChangedAt," +
+			" t.createdBy.id, lt.id, l.result, cd.id, c.suggestion)" +
+			" from TestRequest t left join t.labResult l left join l.tester lt left join t.consultation c left join c.doctor cd" +
+			" where t.requestId > :after order by t.requestId asc")
+	List<TestRequestSummary> findSummaries(@Param("after") Long after, Pageable pageable);
+
+	@Query("select new org.upgrad.upstac.testrequests.TestRequestSummary(t.requestId, t.name, t.gender, t.age, t.address, t.pinCode, t.status, t.created, t.statusChangedAt," +
+			" t.createdBy.id, lt.id, l.result, cd.id, c.suggestion)" +
+			" from TestRequest t left join t.labResult l left join l.tester lt left join t.consultation c left join c.doctor cd" +
+			" where t.status = :status and t.requestId > :after order by t.requestId asc")
+	List<TestRequestSummary> findSummariesByStatus(@Param("status") RequestStatus status, @Param("after") Long after, Pageable pageable);
+
+	@Query("select distinct t from TestRequest t join fetch t.labResult l left join fetch t.consultation left join fetch t.createdBy u left join fetch u.roles where l.tester = :tester")
+	List<TestRequest> findByTester(@Param("tester") User tester);
+
+	@Query("select distinct t from TestRequest t join fetch t.consultation c left join fetch t.labResult left join fetch t.createdBy u left join fetch u.roles where c.doctor = :doctor")
+	List<TestRequest> findByDoctor(@Param("doctor") User doctor);
+
+	// Ownership check and load in one statement, served by idx_lab_result_tester_request / idx_consultation_doctor_request
+	@Query("select distinct t from TestRequest t join fetch t.labResult l left join fetch t.consultation left join fetch t.createdBy u left join fetch u.roles where l.tester = :tester and t.requestId = :id")
+	Optional<TestRequest> findByTesterAndRequestId(@Param("tester") User tester, @Param("id") Long id);
+
+	@Query("select distinct t from TestRequest t join fetch t.consultation c left join fetch t.labResult left join fetch t.createdBy u left join fetch u.roles where c.doctor = :doctor and t.requestId = :id")
+	Optional<TestRequest> findByDoctorAndRequestId(@Param("doctor") User doctor, @Param("id") Long id);
 	
 
 }
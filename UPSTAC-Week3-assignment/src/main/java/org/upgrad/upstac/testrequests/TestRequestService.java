@@ -3,11 +3,16 @@ package org.upgrad.upstac.testrequests;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.upgrad.upstac.exception.AppException;
 import org.upgrad.upstac.users.User;
 
+import javax.transaction.Transactional;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collections;
 import java.util.List;
 
 @Service
@@ -16,21 +21,40 @@ public class TestRequestService {
     @Autowired
     private TestRequestRepository testRequestRepository;
 
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Autowired
+    private ActiveContactService activeContactService;
+
 
 
     private static Logger logger = LoggerFactory.getLogger(TestRequestService.class);
 
 
 
+    @Transactional
     public TestRequest createTestRequestFrom(User user,CreateTestRequest createTestRequest) {
 
         validateExistingRequestsNotPresentWithSameDetails(createTestRequest);
 
+        TestRequest testRequest = newTestRequest(user, createTestRequest);
+        TestRequest savedTestRequest = testRequestRepository.save(testRequest);
+        activeContactService.reserve(Collections.singletonList(savedTestRequest));
+        applicationEventPublisher.publishEvent(new TestRequestStatusChangedEvent(savedTestRequest, null, RequestStatus.INITIATED, user));
+        return savedTestRequest;
+    }
+
+    static TestRequest newTestRequest(User user, CreateTestRequest createTestRequest) {
+
         TestRequest testRequest = new TestRequest();
 
         testRequest.setName(createTestRequest.getName());
+        Instant now = Instant.now();
         testRequest.setCreated(LocalDate.now());
+        testRequest.setCreatedAt(now);
         testRequest.setStatus(RequestStatus.INITIATED);
+        testRequest.setStatusChangedAt(now);
         testRequest.setAge(createTestRequest.getAge());
         testRequest.setEmail(createTestRequest.getEmail());
         testRequest.setPhoneNumber(createTestRequest.getPhoneNumber());
@@ -39,18 +63,13 @@ public class TestRequestService {
         testRequest.setGender(createTestRequest.getGender());
 
         testRequest.setCreatedBy(user);
-        return testRequestRepository.save(testRequest);
+        return testRequest;
     }
 
     public void validateExistingRequestsNotPresentWithSameDetails(CreateTestRequest createTestRequest) {
-        List<TestRequest> testRequests = testRequestRepository.findByEmailOrPhoneNumber(createTestRequest.getEmail(), createTestRequest.getPhoneNumber());
-
 
-        for (TestRequest testRequest : testRequests) {
-
-            if (testRequest.getStatus().equals(RequestStatus.COMPLETED) == false)
-                throw new AppException("A Request with same PhoneNumber or Email is already in progress ");
-        }
+        if (activeContactService.isInProgress(createTestRequest.getEmail(), createTestRequest.getPhoneNumber()))
+            throw new AppException(ActiveContactService.IN_PROGRESS_MESSAGE);
 
     }
 
@@ -59,9 +78,14 @@ public class TestRequestService {
         return testRequestRepository.findByStatus(requestStatus);
     }
 
-    public List<TestRequest> getHistoryFor(User loggedInUser){
+    // Keyset page over (created_by_id, requestId desc); details of one request come from findTestRequestForUserByID
+    public TestRequestSummaryPage getHistoryFor(User loggedInUser, Long cursor, Integer size){
+
+        int pageSize = TestRequestQueryService.asPageSize(size);
+        Long beforeRequestId = (null == cursor) ? Long.MAX_VALUE : cursor;
 
-        return testRequestRepository.findByCreatedBy(loggedInUser);
+        List<TestRequestSummary> summaries = testRequestRepository.findSummariesByCreatedBy(loggedInUser, beforeRequestId, PageRequest.of(0, pageSize + 1));
+        return TestRequestSummaryPage.of(summaries, pageSize);
     }
 
 
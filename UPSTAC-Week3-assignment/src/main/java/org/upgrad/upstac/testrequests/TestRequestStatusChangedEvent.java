@@ -0,0 +1,36 @@
+package org.upgrad.upstac.testrequests;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.upgrad.upstac.users.User;
+
+import java.time.Duration;
+
+// Published by TestRequestService and TestRequestUpdateService inside the transaction that
+// changed the request; listeners that only want committed changes use @TransactionalEventListener.
+@Getter
+@ToString
+@AllArgsConstructor
+public class TestRequestStatusChangedEvent {
+
+    private final TestRequest testRequest;
+
+    // null when the request has just been created
+    private final RequestStatus fromStatus;
+
+    private final RequestStatus toStatus;
+
+    private final User changedBy;
+
+    // how long the request sat in fromStatus; null on create or when the entry time is unknown
+    private final Duration timeInFromStatus;
+
+    public TestRequestStatusChangedEvent(TestRequest testRequest, RequestStatus fromStatus, RequestStatus toStatus, User changedBy) {
+        this(testRequest, fromStatus, toStatus, changedBy, null);
+    }
+
+    public boolean isCreated() {
+        return null == fromStatus;
+    }
+}
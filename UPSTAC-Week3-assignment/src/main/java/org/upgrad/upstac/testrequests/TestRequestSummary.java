@@ -0,0 +1,115 @@
+package org.upgrad.upstac.testrequests;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.upgrad.upstac.testrequests.consultation.Consultation;
+import org.upgrad.upstac.testrequests.consultation.DoctorSuggestion;
+import org.upgrad.upstac.testrequests.lab.LabResult;
+import org.upgrad.upstac.testrequests.lab.TestStatus;
+import org.upgrad.upstac.users.models.Gender;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Row of a test request list view. Users are referenced by id only and the lab result and
+// consultation carry just the outcome the lists show; the full request, with vitals and
+// comments, stays on the single-request endpoints.
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TestRequestSummary {
+
+    private final Long requestId;
+
+    private final String name;
+
+    private final Gender gender;
+
+    private final Integer age;
+
+    private final String address;
+
+    private final Integer pinCode;
+
+    private final RequestStatus status;
+
+    private final LocalDate created;
+
+    private final Instant statusChangedAt;
+
+    private final Long createdById;
+
+    private final LabResultSummary labResult;
+
+    private final ConsultationSummary consultation;
+
+    // Flat so JPQL constructor expressions can build it from left joins
+    public TestRequestSummary(Long requestId, String name, Gender gender, Integer age, String address, Integer pinCode,
+                              RequestStatus status, LocalDate created, Instant statusChangedAt, Long createdById,
+                              Long testerId, TestStatus result, Long doctorId, DoctorSuggestion suggestion) {
+        this.requestId = requestId;
+        this.name = name;
+        this.gender = gender;
+        this.age = age;
+        this.address = address;
+        this.pinCode = pinCode;
+        this.status = status;
+        this.created = created;
+        this.statusChangedAt = statusChangedAt;
+        this.createdById = createdById;
+        this.labResult = null == testerId && null == result ? null : new LabResultSummary(testerId, result);
+        this.consultation = null == doctorId && null == suggestion ? null : new ConsultationSummary(doctorId, suggestion);
+    }
+
+
+    public static TestRequestSummary from(TestRequest testRequest) {
+
+        LabResult labResult = testRequest.getLabResult();
+        Consultation consultation = testRequest.getConsultation();
+
+        return new TestRequestSummary(
+                testRequest.getRequestId(),
+                testRequest.getName(),
+                testRequest.getGender(),
+                testRequest.getAge(),
+                testRequest.getAddress(),
+                testRequest.getPinCode(),
+                testRequest.getStatus(),
+                testRequest.getCreated(),
+                testRequest.getStatusChangedAt(),
+                null == testRequest.getCreatedBy() ? null : testRequest.getCreatedBy().getId(),
+                null == labResult || null == labResult.getTester() ? null : labResult.getTester().getId(),
+                null == labResult ? null : labResult.getResult(),
+                null == consultation || null == consultation.getDoctor() ? null : consultation.getDoctor().getId(),
+                null == consultation ? null : consultation.getSuggestion());
+    }
+
+    public static List<TestRequestSummary> from(List<TestRequest> testRequests) {
+        return testRequests.stream()
+                .map(TestRequestSummary::from)
+                .collect(Collectors.toList());
+    }
+
+
+    @Getter
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class LabResultSummary {
+
+        private final Long testerId;
+
+        private final TestStatus result;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class ConsultationSummary {
+
+        private final Long doctorId;
+
+        private final DoctorSuggestion suggestion;
+    }
+}
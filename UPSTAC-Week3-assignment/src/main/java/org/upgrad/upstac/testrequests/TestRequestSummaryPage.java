@@ -0,0 +1,39 @@
+package org.upgrad.upstac.testrequests;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class TestRequestSummaryPage {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private List<TestRequestSummary> items;
+
+    // requestId to pass as the cursor of the next call, null on the last page
+    private Long nextCursor;
+
+
+    static TestRequestSummaryPage of(List<TestRequestSummary> fetched, int pageSize) {
+
+        if (fetched.size() <= pageSize)
+            return new TestRequestSummaryPage(fetched, null);
+
+        List<TestRequestSummary> items = fetched.subList(0, pageSize);
+        return new TestRequestSummaryPage(items, items.get(pageSize - 1).getRequestId());
+    }
+
+    public ResponseEntity<List<TestRequestSummary>> asResponse() {
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+
+        if (null != nextCursor)
+            response.header(NEXT_CURSOR_HEADER, nextCursor.toString());
+
+        return response.body(items);
+    }
+}
@@ -0,0 +1,140 @@
+package org.upgrad.upstac.testrequests;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// How long requests wait in each status, one timer per lifecycle edge plus the end-to-end turnaround,
+// published as upstac.testrequest.wait / upstac.testrequest.turnaround. Each timer has a percentile histogram
+// bounded to MIN_EXPECTED..MAX_EXPECTED, which Prometheus aggregates across instances; getLatencies estimates
+// this instance's percentiles from the same buckets, with turnaround.window-minutes as the statistics expiry.
+@Component
+public class TestRequestTurnaroundMetrics {
+
+    static final String WAIT_TIMER = "upstac.testrequest.wait";
+    static final String TURNAROUND_TIMER = "upstac.testrequest.turnaround";
+
+    // waits are minutes to days, so buckets below a minute or above a week would only add series
+    static final Duration MIN_EXPECTED = Duration.ofMinutes(1);
+    static final Duration MAX_EXPECTED = Duration.ofDays(7);
+
+    static final RequestStatus[][] EDGES = {
+            {RequestStatus.INITIATED, RequestStatus.LAB_TEST_IN_PROGRESS},
+            {RequestStatus.LAB_TEST_IN_PROGRESS, RequestStatus.LAB_TEST_COMPLETED},
+            {RequestStatus.LAB_TEST_IN_PROGRESS, RequestStatus.INITIATED},
+            {RequestStatus.LAB_TEST_COMPLETED, RequestStatus.DIAGNOSIS_IN_PROCESS},
+            {RequestStatus.DIAGNOSIS_IN_PROCESS, RequestStatus.COMPLETED}
+    };
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${turnaround.window-minutes:60}")
+    private long windowMinutes;
+
+    private final Map<String, Timer> waits = new ConcurrentHashMap<>();
+    private final Map<String, RequestStatus[]> edges = new LinkedHashMap<>();
+    private Timer turnaround;
+    private MeterRegistry registry;
+
+
+    @PostConstruct
+    public void register() {
+
+        registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+
+        for (RequestStatus[] edge : EDGES) {
+            edges.put(key(edge[0], edge[1]), edge);
+            waitTimer(edge[0], edge[1]);
+        }
+
+        turnaround = timer(Timer.builder(TURNAROUND_TIMER).description("Time from creation to COMPLETED"));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(TestRequestStatusChangedEvent event) {
+
+        if (null != event.getTimeInFromStatus())
+            waitTimer(event.getFromStatus(), event.getToStatus()).record(event.getTimeInFromStatus());
+
+        Instant createdAt = event.getTestRequest().getCreatedAt();
+        if (event.getToStatus() == RequestStatus.COMPLETED && null != createdAt)
+            turnaround.record(Duration.between(createdAt, Instant.now()));
+    }
+
+    public List<TransitionLatency> getLatencies() {
+
+        List<TransitionLatency> latencies = new ArrayList<>();
+
+        for (RequestStatus[] edge : edges.values())
+            latencies.add(latencyOf(edge[0], edge[1], waits.get(key(edge[0], edge[1]))));
+
+        latencies.add(latencyOf(null, RequestStatus.COMPLETED, turnaround));
+        return latencies;
+    }
+
+    private Timer waitTimer(RequestStatus from, RequestStatus to) {
+
+        return waits.computeIfAbsent(key(from, to), key -> timer(Timer.builder(WAIT_TIMER)
+                .description("Time a request spent in a status before moving on")
+                .tag("from", from.name())
+                .tag("to", to.name())));
+    }
+
+    private Timer timer(Timer.Builder builder) {
+
+        return builder
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_EXPECTED)
+                .maximumExpectedValue(MAX_EXPECTED)
+                .distributionStatisticExpiry(Duration.ofMinutes(windowMinutes))
+                .register(registry);
+    }
+
+    private static TransitionLatency latencyOf(RequestStatus from, RequestStatus to, Timer timer) {
+
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        return new TransitionLatency(from, to, snapshot.count(), percentile(snapshot, 0.5), percentile(snapshot, 0.9), percentile(snapshot, 0.99), snapshot.max(TimeUnit.MILLISECONDS));
+    }
+
+    // Bucket counts are cumulative; the value is interpolated inside the bucket the rank falls in
+    static double percentile(HistogramSnapshot snapshot, double percentile) {
+
+        double max = snapshot.max(TimeUnit.MILLISECONDS);
+        double rank = percentile * snapshot.count();
+        double lower = 0;
+        double below = 0;
+
+        for (CountAtBucket bucket : snapshot.histogramCounts()) {
+            double upper = bucket.bucket(TimeUnit.MILLISECONDS);
+            if (bucket.count() >= rank && bucket.count() > below)
+                return Math.min(max, lower + (upper - lower) * (rank - below) / (bucket.count() - below));
+
+            lower = upper;
+            below = bucket.count();
+        }
+        return max;
+    }
+
+    private static String key(RequestStatus from, RequestStatus to) {
+        return from + ">" + to;
+    }
+
+}
@@ -2,6 +2,8 @@ package org.upgrad.upstac.testrequests;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 import org.upgrad.upstac.exception.AppException;
@@ -16,6 +18,10 @@ import org.upgrad.upstac.users.User;
 
 import javax.transaction.Transactional;
 import javax.validation.Valid;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 @Service
 @Slf4j
@@ -38,6 +44,22 @@ public class TestRequestUpdateService {
     private ConsultationService consultationService;
 
 
+    @Autowired
+    private ActiveContactService activeContactService;
+
+
+    @Autowired
+    private TestRequestClaimer testRequestClaimer;
+
+
+    @Autowired
+    private LabQueueRouter labQueueRouter;
+
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+
     @Transactional
     public TestRequest saveTestRequest(@Valid TestRequest result) {
 
@@ -46,45 +68,140 @@ public class TestRequestUpdateService {
     }
 
 
-    TestRequest updateStatusAndSave(TestRequest testRequest, RequestStatus status) {
-        testRequest.setStatus(status);
-        return saveTestRequest(testRequest);
+    // Moves the request only if it is still in the expected state. The conditional
+    // update takes the row lock, so of two concurrent callers exactly one sees a row count of 1.
+    TestRequest changeStatus(Long id, RequestStatus from, RequestStatus to, String errorMessage) {
+
+        try {
+            if (testRequestRepository.updateStatus(id, from, to) == 0)
+                throw new AppException(errorMessage);
+        } catch (ConcurrencyFailureException e) {
+            throw new AppException(errorMessage, e);
+        }
+
+        return testRequestRepository.findByRequestId(id).orElseThrow(() -> new AppException(errorMessage));
+    }
+
+
+    // Takes the oldest request in the queue; empty when there is nothing left to claim
+    Optional<TestRequest> claimNext(RequestStatus from, RequestStatus to) {
+        return claimNext(() -> testRequestClaimer.claim(from, to));
+    }
+
+    Optional<TestRequest> claimNext(Supplier<Optional<Long>> claim) {
+
+        try {
+            return claim.get().flatMap(testRequestRepository::findByRequestId);
+        } catch (ConcurrencyFailureException e) {
+            throw new AppException("Could not claim a test request, please retry", e);
+        }
     }
 
 
+    @Transactional
     public TestRequest assignForLabTest(Long id, User tester) {
-        TestRequest testRequest = testRequestRepository.findByRequestIdAndStatus(id,RequestStatus.INITIATED).orElseThrow(()-> new AppException("Invalid ID"));
+        TestRequest testRequest = changeStatus(id, RequestStatus.INITIATED, RequestStatus.LAB_TEST_IN_PROGRESS, "Invalid ID");
+
+        // throwing here rolls the status change back
+        if (labQueueRouter.isEnabled() && !labQueueRouter.areaOf(tester).contains(testRequest.getPinCode()))
+            throw new AppException("Request is outside the pin code area of the tester");
+
+        return assignedForLabTest(testRequest, tester);
+    }
+
+    @Transactional
+    public Optional<TestRequest> claimNextForLabTest(User tester) {
+
+        if (!labQueueRouter.isEnabled())
+            return claimNext(RequestStatus.INITIATED, RequestStatus.LAB_TEST_IN_PROGRESS)
+                    .map(testRequest -> assignedForLabTest(testRequest, tester));
+
+        PinCodeRange area = labQueueRouter.areaOf(tester);
+        return claimNext(() -> testRequestClaimer.claim(RequestStatus.INITIATED, RequestStatus.LAB_TEST_IN_PROGRESS, area,
+                        () -> labQueueRouter.oldestWithin(area, TestRequestClaimer.CLAIM_CANDIDATES)))
+                .map(testRequest -> assignedForLabTest(testRequest, tester));
+    }
+
+    private TestRequest assignedForLabTest(TestRequest testRequest, User tester) {
         LabResult labResult= labResultService.assignForLabTest(testRequest,tester);
         testRequestFlowService.log(testRequest, RequestStatus.INITIATED, RequestStatus.LAB_TEST_IN_PROGRESS, tester);
         testRequest.setLabResult(labResult);
-        return updateStatusAndSave(testRequest, RequestStatus.LAB_TEST_IN_PROGRESS);
+        publishStatusChanged(testRequest, RequestStatus.INITIATED, tester);
+        return testRequest;
     }
 
+    @Transactional
     public TestRequest updateLabTest(Long id,@Valid CreateLabResult createLabResult, User tester) {
 
-        TestRequest testRequest = testRequestRepository.findByRequestIdAndStatus(id,RequestStatus.LAB_TEST_IN_PROGRESS).orElseThrow(()-> new AppException("Invalid ID or State"));
+        TestRequest testRequest = changeStatus(id, RequestStatus.LAB_TEST_IN_PROGRESS, RequestStatus.LAB_TEST_COMPLETED, "Invalid ID or State");
 
 
-        labResultService.updateLabTest(testRequest,createLabResult);
+        LabResult labResult = labResultService.updateLabTest(testRequest,createLabResult);
         testRequestFlowService.log(testRequest, RequestStatus.LAB_TEST_IN_PROGRESS, RequestStatus.LAB_TEST_COMPLETED, tester);
-        return updateStatusAndSave(testRequest, RequestStatus.LAB_TEST_COMPLETED);
+        testRequest.setLabResult(labResult);
+        publishStatusChanged(testRequest, RequestStatus.LAB_TEST_IN_PROGRESS, tester);
+        return testRequest;
+    }
+
+    // Puts a request whose tester held it past the lease back in the INITIATED queue.
+    // Returns false when the tester finished it in the meantime.
+    @Transactional
+    public boolean releaseLabTest(LabResult labResult) {
+
+        TestRequest testRequest = labResult.getRequest();
+        if (testRequestRepository.updateStatus(testRequest.getRequestId(), RequestStatus.LAB_TEST_IN_PROGRESS, RequestStatus.INITIATED) == 0)
+            return false;
+
+        testRequest = testRequestRepository.findByRequestId(testRequest.getRequestId()).get();
+        labResultService.release(labResult);
+        testRequestFlowService.log(testRequest, RequestStatus.LAB_TEST_IN_PROGRESS, RequestStatus.INITIATED, null);
+        testRequest.setLabResult(null);
+        publishStatusChanged(testRequest, RequestStatus.LAB_TEST_IN_PROGRESS, null);
+        return true;
     }
 
+    @Transactional
     public TestRequest assignForConsultation(Long id, User doctor) {
-        TestRequest testRequest = testRequestRepository.findByRequestIdAndStatus(id,RequestStatus.LAB_TEST_COMPLETED).orElseThrow(()-> new AppException("Invalid ID or State"));
+        TestRequest testRequest = changeStatus(id, RequestStatus.LAB_TEST_COMPLETED, RequestStatus.DIAGNOSIS_IN_PROCESS, "Invalid ID or State");
+        return assignedForConsultation(testRequest, doctor);
+    }
+
+    @Transactional
+    public Optional<TestRequest> claimNextForConsultation(User doctor) {
+        return claimNext(RequestStatus.LAB_TEST_COMPLETED, RequestStatus.DIAGNOSIS_IN_PROCESS)
+                .map(testRequest -> assignedForConsultation(testRequest, doctor));
+    }
+
+    private TestRequest assignedForConsultation(TestRequest testRequest, User doctor) {
         Consultation consultation =consultationService.assignForConsultation(testRequest,doctor);
         testRequestFlowService.log(testRequest, RequestStatus.LAB_TEST_COMPLETED, RequestStatus.DIAGNOSIS_IN_PROCESS, doctor);
         testRequest.setConsultation(consultation);
-        return updateStatusAndSave(testRequest, RequestStatus.DIAGNOSIS_IN_PROCESS);
+        publishStatusChanged(testRequest, RequestStatus.LAB_TEST_COMPLETED, doctor);
+        return testRequest;
     }
 
 
+    @Transactional
     public TestRequest updateConsultation(Long id, @Valid CreateConsultationRequest createConsultationRequest, User doctor) {
 
-        TestRequest testRequest = testRequestRepository.findByRequestIdAndStatus(id,RequestStatus.DIAGNOSIS_IN_PROCESS).orElseThrow(()-> new AppException("Invalid ID or State"));
-        consultationService.updateConsultation(testRequest,createConsultationRequest);
+        TestRequest testRequest = changeStatus(id, RequestStatus.DIAGNOSIS_IN_PROCESS, RequestStatus.COMPLETED, "Invalid ID or State");
+        Consultation consultation = consultationService.updateConsultation(testRequest,createConsultationRequest);
         testRequestFlowService.log(testRequest, RequestStatus.DIAGNOSIS_IN_PROCESS, RequestStatus.COMPLETED, doctor);
-        return updateStatusAndSave(testRequest, RequestStatus.COMPLETED);
+        activeContactService.release(testRequest);
+        testRequest.setConsultation(consultation);
+        publishStatusChanged(testRequest, RequestStatus.DIAGNOSIS_IN_PROCESS, doctor);
+        return testRequest;
+    }
+
+    // The conditional update only moves the status; the entry time of the new status is written
+    // here, on the managed entity, after the time spent in the old one has been taken from it.
+    void publishStatusChanged(TestRequest testRequest, RequestStatus from, User changedBy) {
+
+        Instant now = Instant.now();
+        Duration timeInFromStatus = (null == testRequest.getStatusChangedAt()) ? null : Duration.between(testRequest.getStatusChangedAt(), now);
+        testRequest.setStatusChangedAt(now);
+
+        applicationEventPublisher.publishEvent(new TestRequestStatusChangedEvent(testRequest, from, testRequest.getStatus(), changedBy, timeInFromStatus));
     }
 
 
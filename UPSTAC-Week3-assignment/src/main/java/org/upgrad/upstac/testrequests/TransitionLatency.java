@@ -0,0 +1,26 @@
+package org.upgrad.upstac.testrequests;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Wait-time percentiles for one edge of the request lifecycle, in milliseconds.
+// A null fromStatus marks the end-to-end INITIATED to COMPLETED turnaround.
+@Getter
+@AllArgsConstructor
+public class TransitionLatency {
+
+    private final RequestStatus fromStatus;
+
+    private final RequestStatus toStatus;
+
+    private final long count;
+
+    private final double p50Millis;
+
+    private final double p90Millis;
+
+    private final double p99Millis;
+
+    private final double maxMillis;
+
+}
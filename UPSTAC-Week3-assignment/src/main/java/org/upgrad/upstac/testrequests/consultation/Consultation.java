@@ -9,12 +9,16 @@ import org.upgrad.upstac.testrequests.TestRequest;
 import org.upgrad.upstac.users.User;
 
 import javax.persistence.*;
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Data
 @Entity
 @Setter
 @Getter
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_consultation_request", columnNames = "request_request_id"), indexes = {
+        @Index(name = "idx_consultation_doctor_request", columnList = "doctor_id,request_request_id")
+})
 public class Consultation {
 
 
@@ -34,6 +38,8 @@ public class Consultation {
 
     private LocalDate updatedOn;
 
+    private Instant updatedAt;
+
     @ManyToOne
     User doctor;
 
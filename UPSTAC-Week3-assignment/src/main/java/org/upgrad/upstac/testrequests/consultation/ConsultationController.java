@@ -4,13 +4,18 @@ package org.upgrad.upstac.testrequests.consultation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.upgrad.upstac.config.security.UserLoggedInService;
 import org.upgrad.upstac.exception.AppException;
 import org.upgrad.upstac.testrequests.RequestStatus;
 import org.upgrad.upstac.testrequests.TestRequest;
 import org.upgrad.upstac.testrequests.TestRequestQueryService;
+import org.upgrad.upstac.testrequests.TestRequestQueueNotifier;
+import org.upgrad.upstac.testrequests.TestRequestSummary;
 import org.upgrad.upstac.testrequests.TestRequestUpdateService;
 import org.upgrad.upstac.testrequests.flow.TestRequestFlowService;
 import org.upgrad.upstac.users.User;
@@ -42,24 +47,35 @@ public class ConsultationController {
     @Autowired
     private UserLoggedInService userLoggedInService;
 
+    @Autowired
+    private TestRequestQueueNotifier testRequestQueueNotifier;
+
 
 
     @GetMapping("/in-queue")
     @PreAuthorize("hasAnyRole('DOCTOR')")
-    public List<TestRequest> getForConsultations()  {
+    public ResponseEntity<List<TestRequestSummary>> getForConsultations(@RequestParam(required = false) Long cursor, @RequestParam(required = false) Integer size)  {
         //Implement this method to get the list of test requests having status as 'LAB_TEST_COMPLETED'
         // make use of the findBy() method from testRequestQueryService class
         //return the result
         // For reference check the method requestHistory() method from TestRequestController class
         // return null; // replace this line with your code
 
-        return testRequestQueryService.findBy(RequestStatus.LAB_TEST_COMPLETED);
+        return testRequestQueryService.findBy(RequestStatus.LAB_TEST_COMPLETED, cursor, size).asResponse();
+
+    }
+
+    // Added/claimed deltas for the in-queue queue. Subscribe first, then load the queue once and apply these on top
+    @GetMapping(value = "/in-queue/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('DOCTOR')")
+    public SseEmitter getForConsultationsEvents() {
 
+        return testRequestQueueNotifier.subscribe(RequestStatus.LAB_TEST_COMPLETED);
     }
 
     @GetMapping
     @PreAuthorize("hasAnyRole('DOCTOR')")
-    public List<TestRequest> getForDoctor()  {
+    public List<TestRequestSummary> getForDoctor()  {
 
         // Create an object of User class and store the current logged in user first
         //Implement this method to return the list of test requests assigned to current doctor(make use of the above created User object)
@@ -68,12 +84,29 @@ public class ConsultationController {
 
         //return null; // replace this line with your code
         User user = userLoggedInService.getLoggedInUser();
-        return testRequestQueryService.findByDoctor(user);
+        return TestRequestSummary.from(testRequestQueryService.findByDoctor(user));
 
     }
 
 
 
+    // Takes the oldest request in the LAB_TEST_COMPLETED queue for the logged in user; 204 when the queue is empty
+    @PreAuthorize("hasAnyRole('DOCTOR')")
+    @PostMapping("/claim-next")
+    public ResponseEntity<TestRequest> claimNextForConsultation() {
+
+        User user = userLoggedInService.getLoggedInUser();
+
+        try {
+            return testRequestUpdateService.claimNextForConsultation(user)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.noContent().build());
+        } catch (AppException e) {
+            throw asBadRequest(e.getMessage());
+        }
+    }
+
+
     @PreAuthorize("hasAnyRole('DOCTOR')")
     @PutMapping("/assign/{id}")
     public TestRequest assignForConsultation(@PathVariable Long id) {
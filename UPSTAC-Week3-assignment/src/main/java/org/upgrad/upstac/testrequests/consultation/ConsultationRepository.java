@@ -1,6 +1,7 @@
 package org.upgrad.upstac.testrequests.consultation;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import org.upgrad.upstac.testrequests.TestRequest;
 import org.upgrad.upstac.users.User;
@@ -23,6 +24,10 @@ public interface ConsultationRepository extends JpaRepository<Consultation,Long>
 
 
     List<Consultation> findByDoctor(User user);
+    // every row of requests that have more than one, oldest first
+    @Query("select c from Consultation c join c.request r where r.requestId in (select d.request.requestId from Consultation d group by d.request.requestId having count(d) > 1) order by r.requestId, c.id")
+    List<Consultation> findDuplicates();
+
     Optional<Consultation> findByRequest(TestRequest testRequest);
 
     Optional<Consultation> findByDoctorAndRequest(User doctor,TestRequest testRequest);
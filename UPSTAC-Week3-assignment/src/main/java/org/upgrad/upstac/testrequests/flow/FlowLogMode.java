@@ -0,0 +1,12 @@
+package org.upgrad.upstac.testrequests.flow;
+
+// How TestRequestFlow audit entries reach the database (flow-log.mode)
+public enum FlowLogMode {
+
+    // inserted in the transaction that changes the status: committed or rolled back with it
+    TRANSACTIONAL,
+
+    // queued after the status change commits and inserted in JDBC batches by a background writer;
+    // entries still queued when the process dies are lost
+    ASYNC
+}
@@ -7,10 +7,14 @@ import org.upgrad.upstac.testrequests.TestRequest;
 import org.upgrad.upstac.users.User;
 
 import javax.persistence.*;
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Data
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_test_request_flow_request_id", columnList = "request_request_id")
+})
 public class TestRequestFlow {
 
 
@@ -32,6 +36,8 @@ public class TestRequestFlow {
 
     private LocalDate happenedOn=LocalDate.now();
 
+    private Instant happenedAt=Instant.now();
+
 
 
 
@@ -0,0 +1,21 @@
+package org.upgrad.upstac.testrequests.flow;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Completed timelines never go stale, so unlike spring.cache.caffeine.spec they are bounded by
+// size and idle time only
+@Configuration
+public class TestRequestFlowCacheConfig {
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> testRequestFlowCache(@Value("${flow-log.cache.spec:maximumSize=50000,expireAfterAccess=6h,recordStats}") String spec) {
+
+        return cacheManager -> cacheManager.registerCustomCache(TestRequestFlowService.FLOW_CACHE, Caffeine.from(spec).build());
+    }
+
+}
@@ -0,0 +1,43 @@
+package org.upgrad.upstac.testrequests.flow;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.upgrad.upstac.testrequests.RequestStatus;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+// One row of a request's timeline. Built straight from the query, so the changer's
+// User and roles are never loaded; instances are immutable and safe to share from the cache.
+@Getter
+public class TestRequestFlowEntry {
+
+    private final RequestStatus fromStatus;
+
+    private final RequestStatus toStatus;
+
+    private final LocalDate happenedOn;
+
+    private final Instant happenedAt;
+
+    // null for changes made by the application itself, e.g. an expired lab lease
+    private final ChangedBy changedBy;
+
+    public TestRequestFlowEntry(RequestStatus fromStatus, RequestStatus toStatus, LocalDate happenedOn, Instant happenedAt, Long changedById, String changedByUserName) {
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+        this.happenedOn = happenedOn;
+        this.happenedAt = happenedAt;
+        this.changedBy = (null == changedById) ? null : new ChangedBy(changedById, changedByUserName);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ChangedBy {
+
+        private final Long id;
+
+        private final String userName;
+    }
+
+}
@@ -1,6 +1,7 @@
 package org.upgrad.upstac.testrequests.flow;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 import org.upgrad.upstac.testrequests.TestRequest;
@@ -8,15 +9,21 @@ import org.upgrad.upstac.testrequests.RequestStatus;
 import org.upgrad.upstac.users.User;
 
 import javax.transaction.Transactional;
+import java.util.Collections;
 import java.util.List;
 
 @Service
 @Validated
 public class TestRequestFlowService {
 
+    public static final String FLOW_CACHE = "testRequestFlow";
+
     @Autowired
     private TestRequestFlowRepository testRequestFlowRepository;
 
+    @Autowired
+    private TestRequestFlowWriter testRequestFlowWriter;
+
 
     @Transactional
     public void log(TestRequest testRequest, RequestStatus from, RequestStatus to, User changedBy) {
@@ -25,7 +32,11 @@ public class TestRequestFlowService {
         testRequestFlow.setRequest(testRequest);
         testRequestFlow.setFromStatus(from);
         testRequestFlow.setToStatus(to);
-        testRequestFlowRepository.save(testRequestFlow);
+
+        if (testRequestFlowWriter.isAsync())
+            testRequestFlowWriter.enqueue(testRequestFlow);
+        else
+            testRequestFlowRepository.save(testRequestFlow);
     }
 
 
@@ -35,4 +46,14 @@ public class TestRequestFlowService {
         return testRequestFlowRepository.findByRequest(testRequest);
     }
 
+    // A COMPLETED request never changes again, so its timeline is cached without invalidation. With
+    // FlowLogMode.ASYNC the last entry may still be queued, so only a timeline that ends COMPLETED is kept.
+    @Cacheable(value = FLOW_CACHE, key = "#testRequest.requestId",
+            condition = "#testRequest.status == T(org.upgrad.upstac.testrequests.RequestStatus).COMPLETED",
+            unless = "#result.?[toStatus == T(org.upgrad.upstac.testrequests.RequestStatus).COMPLETED].isEmpty()")
+    public List<TestRequestFlowEntry> findTimelineFor(TestRequest testRequest) {
+
+        return Collections.unmodifiableList(testRequestFlowRepository.findEntriesByRequestId(testRequest.getRequestId()));
+    }
+
 }
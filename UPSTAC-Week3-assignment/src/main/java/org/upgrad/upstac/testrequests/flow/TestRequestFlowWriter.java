@@ -0,0 +1,248 @@
+package org.upgrad.upstac.testrequests.flow;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.upgrad.upstac.config.execution.ExecutionMode;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Background writer behind FlowLogMode.ASYNC. Entries join a bounded queue once their transaction
+// commits and a single thread inserts them in JDBC batches. While the queue is full the caller inserts
+// its own entry inside its transaction, as TRANSACTIONAL does, so a burst slows callers down instead of
+// dropping audit rows. A failed batch is retried with exponential backoff, which is what lets the queue
+// fill while the database is away, and then written entry by entry so one bad row doesn't take the rest
+// with it. Only entries that still fail are dropped, and counted.
+@Component
+public class TestRequestFlowWriter {
+
+    static final String INSERT = "insert into test_request_flow (request_request_id, from_status, to_status, changed_by_id, happened_on, happened_at) values (?, ?, ?, ?, ?, ?)";
+
+    @Value("${flow-log.mode:TRANSACTIONAL}")
+    private FlowLogMode mode;
+
+    @Value("${flow-log.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${flow-log.batch-size:500}")
+    private int batchSize;
+
+    @Value("${flow-log.offer-timeout-ms:100}")
+    private long offerTimeoutMs;
+
+    @Value("${flow-log.retry-attempts:3}")
+    private int retryAttempts;
+
+    @Value("${flow-log.retry-backoff-ms:200}")
+    private long retryBackoffMs;
+
+    @Value("${execution.mode:PLATFORM}")
+    private ExecutionMode executionMode;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate newTransaction;
+    private BlockingQueue<TestRequestFlow> queue;
+    private Thread worker;
+    private volatile boolean running;
+
+    private Timer flushTimer;
+    private Counter callerWrites;
+    Counter dropped;
+
+    private static final Logger log = LoggerFactory.getLogger(TestRequestFlowWriter.class);
+
+
+    @PostConstruct
+    public void start() {
+
+        if (!isAsync())
+            return;
+
+        // each batch commits or rolls back as a whole, so a retry never writes an entry twice
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        Gauge.builder("upstac.flowlog.queue.depth", queue, BlockingQueue::size).register(registry);
+        flushTimer = Timer.builder("upstac.flowlog.flush").register(registry);
+        callerWrites = Counter.builder("upstac.flowlog.caller.writes").register(registry);
+        dropped = Counter.builder("upstac.flowlog.dropped").register(registry);
+
+        running = true;
+        worker = executionMode.threadFactory("flow-log-writer").newThread(this::drain);
+        worker.start();
+
+        log.info("Writing test request flow asynchronously in batches of {}", batchSize);
+    }
+
+    public boolean isAsync() {
+        return mode == FlowLogMode.ASYNC;
+    }
+
+    // Entries of a transaction that rolls back are never queued
+    public void enqueue(TestRequestFlow testRequestFlow) {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            offer(testRequestFlow);
+            return;
+        }
+
+        // writing after commit would need a second connection while the finished transaction still holds its own
+        if (queue.remainingCapacity() == 0) {
+            callerWrites.increment();
+            insert(Collections.singletonList(testRequestFlow));
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                offer(testRequestFlow);
+            }
+        });
+    }
+
+    private void offer(TestRequestFlow testRequestFlow) {
+
+        try {
+            if (running && queue.offer(testRequestFlow, offerTimeoutMs, TimeUnit.MILLISECONDS))
+                return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        callerWrites.increment();
+        writeOrDrop(testRequestFlow);
+    }
+
+    private void drain() {
+
+        List<TestRequestFlow> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                TestRequestFlow first = queue.poll(1, TimeUnit.SECONDS);
+                if (null == first)
+                    continue;
+
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<TestRequestFlow> batch) {
+
+        long backoffMs = retryBackoffMs;
+        for (int attempt = 1; attempt <= retryAttempts; attempt++) {
+            try {
+                flush(batch);
+                return;
+            } catch (DataAccessException | TransactionException e) {
+                log.warn("Could not write {} test request flow entries, attempt {} of {}: {}", batch.size(), attempt, retryAttempts, e.getMessage());
+            }
+
+            if (attempt < retryAttempts && !pause(backoffMs))
+                break;
+            backoffMs *= 2;
+        }
+
+        for (TestRequestFlow testRequestFlow : batch)
+            writeOrDrop(testRequestFlow);
+    }
+
+    private void writeOrDrop(TestRequestFlow testRequestFlow) {
+
+        try {
+            flush(Collections.singletonList(testRequestFlow));
+        } catch (DataAccessException | TransactionException e) {
+            dropped.increment();
+            log.error("Dropped test request flow entry of request " + testRequestFlow.getRequest().getRequestId()
+                    + " " + testRequestFlow.getFromStatus() + " -> " + testRequestFlow.getToStatus(), e);
+        }
+    }
+
+    private boolean pause(long millis) {
+
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void flush(List<TestRequestFlow> batch) {
+
+        newTransaction.executeWithoutResult(status -> insert(batch));
+    }
+
+    private void insert(List<TestRequestFlow> batch) {
+
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+
+        flushTimer.record(() -> jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), (statement, testRequestFlow) -> {
+            statement.setLong(1, testRequestFlow.getRequest().getRequestId());
+            statement.setObject(2, null == testRequestFlow.getFromStatus() ? null : testRequestFlow.getFromStatus().ordinal());
+            statement.setObject(3, null == testRequestFlow.getToStatus() ? null : testRequestFlow.getToStatus().ordinal());
+            statement.setObject(4, null == testRequestFlow.getChangedBy() ? null : testRequestFlow.getChangedBy().getId());
+            statement.setDate(5, Date.valueOf(testRequestFlow.getHappenedOn()));
+            statement.setTimestamp(6, Timestamp.from(testRequestFlow.getHappenedAt()), utc);
+        }));
+    }
+
+    // Lets the worker empty the queue before the datasource goes away
+    @PreDestroy
+    public void stop() throws InterruptedException {
+
+        if (null == worker)
+            return;
+
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+}
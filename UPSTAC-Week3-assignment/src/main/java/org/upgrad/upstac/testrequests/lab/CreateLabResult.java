@@ -4,20 +4,39 @@ import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
 
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
 
 @Data
 @Setter
 @Getter
 public class CreateLabResult {
 
+    // systolic/diastolic in mmHg, e.g. 120/80; the diastolic part may be left out
     @NotNull
+    @Pattern(regexp = "\\d{2,3}(/\\d{2,3})?", message = "bloodPressure must look like 120/80")
     private String bloodPressure;
 
+    // beats per minute
     @NotNull
+    @Pattern(regexp = "\\d{2,3}", message = "heartBeat must be a whole number")
+    @DecimalMin("20")
+    @DecimalMax("250")
     private String heartBeat;
+
+    // degrees Fahrenheit, one decimal place
     @NotNull
+    @Pattern(regexp = "\\d{2,3}(\\.\\d)?", message = "temperature must be a number with at most one decimal place")
+    @DecimalMin("80")
+    @DecimalMax("115")
     private String temperature;
+
+    // SpO2 percentage, one decimal place
+    @Pattern(regexp = "\\d{1,3}(\\.\\d)?", message = "oxygenLevel must be a number with at most one decimal place")
+    @DecimalMin("50")
+    @DecimalMax("100")
     private String oxygenLevel;
     private String comments;
     @NotNull
@@ -4,13 +4,18 @@ package org.upgrad.upstac.testrequests.lab;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.upgrad.upstac.config.security.UserLoggedInService;
 import org.upgrad.upstac.exception.AppException;
 import org.upgrad.upstac.testrequests.RequestStatus;
 import org.upgrad.upstac.testrequests.TestRequest;
 import org.upgrad.upstac.testrequests.TestRequestQueryService;
+import org.upgrad.upstac.testrequests.TestRequestQueueNotifier;
+import org.upgrad.upstac.testrequests.TestRequestSummary;
 import org.upgrad.upstac.testrequests.TestRequestUpdateService;
 import org.upgrad.upstac.testrequests.flow.TestRequestFlowService;
 import org.upgrad.upstac.users.User;
@@ -44,24 +49,40 @@ public class LabRequestController {
     @Autowired
     private UserLoggedInService userLoggedInService;
 
+    @Autowired
+    private TestRequestQueueNotifier testRequestQueueNotifier;
+
 
 
     @GetMapping("/to-be-tested")
     @PreAuthorize("hasAnyRole('TESTER')")
-    public List<TestRequest> getForTests()  {
+    public ResponseEntity<List<TestRequestSummary>> getForTests(@RequestParam(required = false) Long cursor, @RequestParam(required = false) Integer size)  {
 
         //Implement this method to return the list of test requests having status as 'INITIATED'
         //Make use of the findBy() method from testRequestQueryService class to get the list
         // For reference check the method requestHistory() method from TestRequestController class
         //    return null; // replace this line with your code
 
-        return testRequestQueryService.findBy(RequestStatus.INITIATED);
+        try {
+            User user = userLoggedInService.getLoggedInUser();
+            return testRequestQueryService.findForTester(user, cursor, size).asResponse();
+        } catch (AppException e) {
+            throw asBadRequest(e.getMessage());
+        }
+
+    }
+
+    // Added/claimed deltas for the to-be-tested queue. Subscribe first, then load the queue once and apply these on top
+    @GetMapping(value = "/to-be-tested/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('TESTER')")
+    public SseEmitter getForTestsEvents() {
 
+        return testRequestQueueNotifier.subscribe(RequestStatus.INITIATED);
     }
 
     @GetMapping
     @PreAuthorize("hasAnyRole('TESTER')")
-    public List<TestRequest> getForTester()  {
+    public List<TestRequestSummary> getForTester()  {
 
         // Create an object of User class and store the current logged in user first
         //Implement this method to return the list of test requests assigned to current tester(make use of the above created User object)
@@ -70,11 +91,28 @@ public class LabRequestController {
         // return null; // replace this line with your code
 
         User user = userLoggedInService.getLoggedInUser();
-        return testRequestQueryService.findByTester(user);
+        return TestRequestSummary.from(testRequestQueryService.findByTester(user));
 
     }
 
 
+    // Takes the oldest request in the INITIATED queue for the logged in user; 204 when the queue is empty
+    @PreAuthorize("hasAnyRole('TESTER')")
+    @PostMapping("/claim-next")
+    public ResponseEntity<TestRequest> claimNextForLabTest() {
+
+        User user = userLoggedInService.getLoggedInUser();
+
+        try {
+            return testRequestUpdateService.claimNextForLabTest(user)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.noContent().build());
+        } catch (AppException e) {
+            throw asBadRequest(e.getMessage());
+        }
+    }
+
+
     @PreAuthorize("hasAnyRole('TESTER')")
     @PutMapping("/assign/{id}")
     public TestRequest assignForLabTest(@PathVariable Long id) {
@@ -9,12 +9,22 @@ import org.upgrad.upstac.testrequests.TestRequest;
 import org.upgrad.upstac.users.User;
 
 import javax.persistence.*;
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.Instant;
 
 @Data
 @Entity
 @Getter
 @Setter
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_lab_result_request", columnNames = "request_request_id"), indexes = {
+        @Index(name = "idx_lab_result_tester_request", columnList = "tester_id,request_request_id"),
+        @Index(name = "idx_lab_result_spo2_updated_at", columnList = "oxygenSaturation,updatedAt"),
+        @Index(name = "idx_lab_result_temperature_updated_at", columnList = "bodyTemperature,updatedAt"),
+        @Index(name = "idx_lab_result_pin_code_spo2_updated_at", columnList = "pinCode,oxygenSaturation,updatedAt"),
+        @Index(name = "idx_lab_result_pin_code_temperature_updated_at", columnList = "pinCode,bodyTemperature,updatedAt"),
+        @Index(name = "idx_lab_result_updated_at", columnList = "updatedAt")
+})
 public class LabResult {
 
 
@@ -27,14 +37,36 @@ public class LabResult {
     @ToString.Exclude
     private TestRequest request;
 
+    // the request's pin code, copied so the vitals search filters pin code and vital within one index
+    private Integer pinCode;
+
     private String bloodPressure;
     private String heartBeat;
     private String temperature;
     private String oxygenLevel;
     private String comments;
+
+    // Typed copies of the vitals above, parsed by LabResultService. The text columns keep what the tester entered.
+    private Short systolicPressure;
+    private Short diastolicPressure;
+    private Short heartRate;
+
+    // degrees Fahrenheit
+    @Column(precision = 4, scale = 1)
+    private BigDecimal bodyTemperature;
+
+    // SpO2 percentage
+    @Column(precision = 4, scale = 1)
+    private BigDecimal oxygenSaturation;
+
     private TestStatus result;
     private LocalDate updatedOn;
 
+    private Instant updatedAt;
+
+    // when the tester took the request; the lab lease runs from here
+    private Instant assignedAt;
+
     @ManyToOne
     private User tester;
 
@@ -1,9 +1,14 @@
 package org.upgrad.upstac.testrequests.lab;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.upgrad.upstac.testrequests.RequestStatus;
 import org.upgrad.upstac.testrequests.TestRequest;
 import org.upgrad.upstac.users.User;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,7 +28,22 @@ public interface LabResultRepository extends JpaRepository<LabResult,Long> {
 
     List<LabResult> findByTester(User user);
     Optional<LabResult> findByTesterAndRequest(User user,TestRequest testRequest);
+    // every row of requests that have more than one, oldest first
+    @Query("select l from LabResult l join l.request r where r.requestId in (select d.request.requestId from LabResult d group by d.request.requestId having count(d) > 1) order by r.requestId, l.resultId")
+    List<LabResult> findDuplicates();
+
+    @Query("select l from LabResult l where l.systolicPressure is null and l.heartRate is null and l.bodyTemperature is null and l.oxygenSaturation is null" +
+            " and (l.bloodPressure is not null or l.heartBeat is not null or l.temperature is not null or l.oxygenLevel is not null)")
+    List<LabResult> findWithUnparsedVitals();
+
+    @Modifying
+    @Query("update LabResult l set l.pinCode = (select t.pinCode from TestRequest t where t = l.request) where l.pinCode is null")
+    int copyMissingPinCodes();
+
     Optional<LabResult> findByRequest(TestRequest request);
 
+    @EntityGraph(attributePaths = "request")
+    List<LabResult> findByRequestStatusAndAssignedAtBefore(RequestStatus status, Instant cutoff);
+
 
 }
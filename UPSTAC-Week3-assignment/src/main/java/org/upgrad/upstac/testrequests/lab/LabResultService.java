@@ -6,11 +6,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 import org.upgrad.upstac.config.security.UserLoggedInService;
+import org.upgrad.upstac.exception.AppException;
+import org.upgrad.upstac.testrequests.RequestStatus;
 import org.upgrad.upstac.testrequests.TestRequest;
 import org.upgrad.upstac.users.User;
 
 import javax.transaction.Transactional;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @Validated
@@ -35,7 +44,11 @@ public class LabResultService {
 
         labResult.setTester(tester);
         labResult.setRequest(testRequest);
+        labResult.setPinCode(testRequest.getPinCode());
+        Instant now = Instant.now();
         labResult.setUpdatedOn(LocalDate.now());
+        labResult.setUpdatedAt(now);
+        labResult.setAssignedAt(now);
 
         return saveLabResult(labResult);
     }
@@ -55,15 +68,23 @@ public class LabResultService {
     }
 
 
-    public LabResult updateLabTest(TestRequest testRequest, CreateLabResult createLabResult) {
+    public void release(LabResult labResult) {
+
+        labResultRepository.delete(labResult);
+    }
 
-        //Implement this method to update the lab test
-        // create an object of LabResult and make use of setters to set Blood Pressure, Comments,
-        // HeartBeat, OxygenLevel, Temperature, Result and UpdatedOn values
-        // make use of the saveLabResult() method to return the object of LabResult
 
-        // return null; // replace this line with your code
-        LabResult labResult = new LabResult();
+    public List<LabResult> findAssignedBefore(Instant cutoff) {
+
+        return labResultRepository.findByRequestStatusAndAssignedAtBefore(RequestStatus.LAB_TEST_IN_PROGRESS, cutoff);
+    }
+
+
+    // Fills in the row assignForLabTest created, so the request keeps a single lab result that still names its tester
+    public LabResult updateLabTest(TestRequest testRequest, CreateLabResult createLabResult) {
+
+        LabResult labResult = labResultRepository.findByRequest(testRequest)
+                .orElseThrow(() -> new AppException("No lab test assigned for request " + testRequest.getRequestId()));
 
         labResult.setBloodPressure(createLabResult.getBloodPressure());
         labResult.setHeartBeat(createLabResult.getHeartBeat());
@@ -72,12 +93,107 @@ public class LabResultService {
         labResult.setComments(createLabResult.getComments());
         labResult.setResult(createLabResult.getResult());
         labResult.setUpdatedOn(LocalDate.now());
-        labResult.setRequest(testRequest);
+        labResult.setUpdatedAt(Instant.now());
+        parseVitals(labResult);
 
         return saveLabResult(labResult);
 
 
     }
 
+    // updateLabTest used to insert a second row next to the assigned one. Merge each such pair into the
+    // oldest row, which holds the tester, and delete the rest; a no-op once the data is clean (see MaintenanceRunner).
+    @Transactional
+    public int compactDuplicates() {
+
+        Map<Long, List<LabResult>> byRequest = labResultRepository.findDuplicates().stream()
+                .collect(Collectors.groupingBy(labResult -> labResult.getRequest().getRequestId(), LinkedHashMap::new, Collectors.toList()));
+
+        int removed = 0;
+        for (List<LabResult> rows : byRequest.values()) {
+
+            LabResult kept = rows.get(0);
+            for (LabResult duplicate : rows.subList(1, rows.size())) {
+                merge(kept, duplicate);
+                labResultRepository.delete(duplicate);
+                removed++;
+            }
+            labResultRepository.save(kept);
+        }
+
+        if (removed > 0)
+            logger.info("Merged {} duplicate lab results of {} requests", removed, byRequest.size());
+        return removed;
+    }
+
+    private void merge(LabResult kept, LabResult duplicate) {
+
+        if (null != duplicate.getBloodPressure()) kept.setBloodPressure(duplicate.getBloodPressure());
+        if (null != duplicate.getHeartBeat()) kept.setHeartBeat(duplicate.getHeartBeat());
+        if (null != duplicate.getTemperature()) kept.setTemperature(duplicate.getTemperature());
+        if (null != duplicate.getOxygenLevel()) kept.setOxygenLevel(duplicate.getOxygenLevel());
+        if (null != duplicate.getComments()) kept.setComments(duplicate.getComments());
+        if (null != duplicate.getResult()) kept.setResult(duplicate.getResult());
+        if (null != duplicate.getUpdatedOn()) kept.setUpdatedOn(duplicate.getUpdatedOn());
+        if (null != duplicate.getUpdatedAt()) kept.setUpdatedAt(duplicate.getUpdatedAt());
+        if (null == kept.getTester()) kept.setTester(duplicate.getTester());
+        if (null == kept.getAssignedAt()) kept.setAssignedAt(duplicate.getAssignedAt());
+        parseVitals(kept);
+    }
+
+    // Rows written before the typed vitals columns existed get them parsed from the text columns (see MaintenanceRunner),
+    // and their request's pin code. Values that do not parse stay null there; the text is left as it was.
+    @Transactional
+    public int backfillVitals() {
+
+        int pinCodes = labResultRepository.copyMissingPinCodes();
+        if (pinCodes > 0)
+            logger.info("Copied pin codes to {} lab results", pinCodes);
+
+        List<LabResult> labResults = labResultRepository.findWithUnparsedVitals();
+        labResults.forEach(LabResultService::parseVitals);
+
+        if (!labResults.isEmpty())
+            logger.info("Parsed vitals of {} lab results", labResults.size());
+        return labResults.size();
+    }
+
+    static void parseVitals(LabResult labResult) {
+
+        String bloodPressure = labResult.getBloodPressure();
+        if (null != bloodPressure) {
+            String[] parts = bloodPressure.split("/", 2);
+            labResult.setSystolicPressure(toShort(parts[0]));
+            labResult.setDiastolicPressure(parts.length > 1 ? toShort(parts[1]) : null);
+        } else {
+            labResult.setSystolicPressure(null);
+            labResult.setDiastolicPressure(null);
+        }
+
+        labResult.setHeartRate(toShort(labResult.getHeartBeat()));
+        labResult.setBodyTemperature(toFixedPoint(labResult.getTemperature()));
+        labResult.setOxygenSaturation(toFixedPoint(labResult.getOxygenLevel()));
+    }
+
+    private static Short toShort(String value) {
+
+        if (null == value || !value.trim().matches("\\d{1,4}"))
+            return null;
+        return Short.valueOf(value.trim());
+    }
+
+    // precision 4, scale 1: anything that needs more than three integer digits is not a vital sign
+    private static BigDecimal toFixedPoint(String value) {
+
+        if (null == value)
+            return null;
+        try {
+            BigDecimal result = new BigDecimal(value.trim().replace("%", "")).setScale(1, RoundingMode.HALF_UP);
+            return result.signum() < 0 || result.precision() > 4 ? null : result;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
 
 }
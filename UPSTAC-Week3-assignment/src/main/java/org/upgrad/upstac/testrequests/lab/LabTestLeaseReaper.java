@@ -0,0 +1,46 @@
+package org.upgrad.upstac.testrequests.lab;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.upgrad.upstac.testrequests.TestRequestUpdateService;
+
+import java.time.Duration;
+import java.time.Instant;
+
+// Returns LAB_TEST_IN_PROGRESS requests to the INITIATED queue when their tester has held them
+// longer than labrequests.lease.timeout-minutes. A timeout of 0 (the default) keeps leases forever.
+@Component
+public class LabTestLeaseReaper {
+
+    @Autowired
+    private LabResultService labResultService;
+
+    @Autowired
+    private TestRequestUpdateService testRequestUpdateService;
+
+    @Value("${labrequests.lease.timeout-minutes:0}")
+    private long leaseTimeoutMinutes;
+
+    private static final Logger log = LoggerFactory.getLogger(LabTestLeaseReaper.class);
+
+
+    @Scheduled(fixedDelayString = "${labrequests.lease.check-interval-ms:60000}")
+    public void releaseExpiredLeases() {
+
+        if (leaseTimeoutMinutes <= 0)
+            return;
+
+        int released = 0;
+        for (LabResult labResult : labResultService.findAssignedBefore(Instant.now().minus(Duration.ofMinutes(leaseTimeoutMinutes))))
+            if (testRequestUpdateService.releaseLabTest(labResult))
+                released++;
+
+        if (released > 0)
+            log.info("Returned {} abandoned lab tests to the queue", released);
+    }
+
+}
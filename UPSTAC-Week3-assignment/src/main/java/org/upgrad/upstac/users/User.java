@@ -7,10 +7,13 @@ import lombok.ToString;
 import org.upgrad.upstac.users.models.Gender;
 import org.upgrad.upstac.users.models.AccountStatus;
 import org.upgrad.upstac.users.roles.Role;
+import org.upgrad.upstac.users.roles.UserRole;
 
 import javax.persistence.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Set;
 
 @Entity
@@ -68,10 +71,42 @@ public class User {
     @ManyToMany(fetch = FetchType.EAGER)
     private Set<Role> roles;
 
+    // Built from roles on first use; users are cached and shared between requests, so role checks
+    // should not stream over the Role entities each time
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    private volatile Set<UserRole> userRoles;
+
+
+    public void setRoles(Set<Role> roles) {
+        this.roles = roles;
+        this.userRoles = null;
+    }
+
+    @JsonIgnore
+    public Set<UserRole> getUserRoles() {
+        Set<UserRole> result = userRoles;
+        if (null == result) {
+            EnumSet<UserRole> built = EnumSet.noneOf(UserRole.class);
+            if (null != roles)
+                for (Role role : roles)
+                    for (UserRole userRole : UserRole.values())
+                        if (userRole.name().equalsIgnoreCase(role.getName()))
+                            built.add(userRole);
+            result = Collections.unmodifiableSet(built);
+            userRoles = result;
+        }
+        return result;
+    }
+
+    public boolean hasRole(UserRole userRole) {
+        return getUserRoles().contains(userRole);
+    }
 
     public boolean doesRoleIsDoctor() {
 
-        return doesUserHasRole("DOCTOR");
+        return hasRole(UserRole.DOCTOR);
 
 
     }
@@ -86,15 +121,15 @@ public class User {
     }
 
     public boolean doesRoleIsUser() {
-        return doesUserHasRole("USER");
+        return hasRole(UserRole.USER);
     }
 
     public boolean doesRoleIsAuthority() {
-        return doesUserHasRole("GOVERNMENT_AUTHORITY");
+        return hasRole(UserRole.GOVERNMENT_AUTHORITY);
     }
 
     public boolean doesRoleIsTester() {
-        return doesUserHasRole("TESTER");
+        return hasRole(UserRole.TESTER);
     }
 
     public Integer getAge(){
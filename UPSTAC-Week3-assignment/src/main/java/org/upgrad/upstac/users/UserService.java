@@ -3,8 +3,10 @@ package org.upgrad.upstac.users;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -42,9 +44,11 @@ public class UserService {
 
     private static final Logger log = LoggerFactory.getLogger(UserService.class);
 
+    public static final String USER_CACHE = "user";
 
 
-    @Cacheable("user")
+
+    @Cacheable(value = USER_CACHE, key = "#userName", unless = "#result == null")
     public User findByUserName(String userName) {
 
         return userRepository.findByUserName(userName);
@@ -143,7 +147,7 @@ public class UserService {
 
     }
 
-    @CachePut(value = "user")
+    @CachePut(value = USER_CACHE, key = "#result.userName")
     public User updateApprovalStatus(Long userId,AccountStatus status) {
         User user = userRepository.findById(userId).orElseThrow(() -> new AppException("Invalid User ID"));
 
@@ -151,12 +155,27 @@ public class UserService {
 
     }
 
+    // The user passed in is usually the cached instance itself, so drop it before it is modified
+    // and again once saved, in case a concurrent lookup cached the old row in between
+    @Caching(evict = {
+            @CacheEvict(value = USER_CACHE, key = "#user.userName", beforeInvocation = true),
+            @CacheEvict(value = USER_CACHE, key = "#user.userName")
+    })
     public User updateStatusAndSave(User user, @NotNull AccountStatus status) {
         user.setStatus(status);
         return saveInDatabase(user);
     }
 
-    @CachePut(value = "user")
+    @Caching(evict = {
+            @CacheEvict(value = USER_CACHE, key = "#user.userName", beforeInvocation = true),
+            @CacheEvict(value = USER_CACHE, key = "#user.userName")
+    })
+    public User updatePassword(User user, String encodedPassword) {
+        user.setPassword(encodedPassword);
+        return saveInDatabase(user);
+    }
+
+    @CachePut(value = USER_CACHE, key = "#result.userName")
     public User saveInDatabase(User newUser) {
         try{
             return userRepository.save(newUser);
@@ -170,6 +189,10 @@ public class UserService {
 
     }
 
+    @Caching(evict = {
+            @CacheEvict(value = USER_CACHE, key = "#user.userName", beforeInvocation = true),
+            @CacheEvict(value = USER_CACHE, key = "#user.userName")
+    })
     public User updateUserDetails(User user, UpdateUserDetailRequest updateUserDetailRequest) {
 
 
@@ -4,14 +4,18 @@ package org.upgrad.upstac.users.credentials;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.server.ResponseStatusException;
 import org.upgrad.upstac.exception.ForbiddenException;
 import org.upgrad.upstac.users.User;
 import org.upgrad.upstac.users.UserRepository;
+import org.upgrad.upstac.users.UserService;
 
 import javax.validation.Valid;
 
@@ -38,6 +42,10 @@ public class ChangePasswordService {
 
     private static final Logger log = LoggerFactory.getLogger(ChangePasswordService.class);
 
+    @Caching(evict = {
+            @CacheEvict(value = UserService.USER_CACHE, key = "#user.userName", beforeInvocation = true),
+            @CacheEvict(value = UserService.USER_CACHE, key = "#user.userName")
+    })
     public void changePassword(User user, @Valid ChangePasswordRequest changePasswordRequest) {
 
 
@@ -53,6 +61,8 @@ public class ChangePasswordService {
             user.setPassword(bCryptPasswordEncoder.encode(changedPassword));
             userRepository.save(user);
 
+        } catch (ResponseStatusException e) {
+            throw e;
         } catch (Exception e) {
             throw new ForbiddenException(e.getMessage());
         }
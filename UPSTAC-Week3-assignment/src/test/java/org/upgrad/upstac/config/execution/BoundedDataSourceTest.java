@@ -0,0 +1,52 @@
+package org.upgrad.upstac.config.execution;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedDataSourceTest {
+
+    BoundedDataSource dataSource = new BoundedDataSource(new DriverManagerDataSource("jdbc:h2:mem:bounded", "sa", ""), 1, 50);
+
+    @Test
+    public void getConnection_without_free_permit_should_fail_with_transient_connection_error() throws Exception {
+
+        //Arrange
+        Connection held = dataSource.getConnection();
+
+        //Act
+        assertThrows(SQLTransientConnectionException.class, () -> {
+            dataSource.getConnection();
+        });
+        held.close();
+
+        //Assert
+        try (Connection connection = dataSource.getConnection()) {
+            assertTrue(connection.isValid(1));
+        }
+
+    }
+
+    @Test
+    public void closing_a_connection_twice_should_release_its_permit_once() throws Exception {
+
+        //Arrange
+        Connection connection = dataSource.getConnection();
+
+        //Act
+        connection.close();
+        connection.close();
+
+        //Assert
+        assertEquals(1, dataSource.permits.availablePermits());
+        assertTrue(connection.isClosed());
+
+    }
+
+}
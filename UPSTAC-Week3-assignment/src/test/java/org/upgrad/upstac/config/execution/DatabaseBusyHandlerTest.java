@@ -0,0 +1,79 @@
+package org.upgrad.upstac.config.execution;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.upgrad.upstac.users.UserRepository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// A single permit behind the real datasource, so a held connection leaves a repository call without one
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class DatabaseBusyHandlerTest {
+
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Test
+    public void repository_call_without_free_permit_should_return_service_unavailable() throws Exception {
+
+        //Arrange
+        ResponseEntity<String> result;
+        try (Connection held = dataSource.getConnection()) {
+
+            //Act
+            result = restTemplate.getForEntity("/public/database-busy-probe", String.class);
+        }
+
+        //Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, result.getStatusCode());
+        assertEquals(HttpStatus.OK, restTemplate.getForEntity("/public/database-busy-probe", String.class).getStatusCode());
+
+    }
+
+    @TestConfiguration
+    static class SinglePermitConfig {
+
+        @Bean
+        public static BeanPostProcessor singlePermitDataSource() {
+            return VirtualThreadConfig.boundedDataSourcePostProcessor(1, 50);
+        }
+
+        @Bean
+        public ProbeController databaseBusyProbe(UserRepository userRepository) {
+            return new ProbeController(userRepository);
+        }
+    }
+
+    @RestController
+    static class ProbeController {
+
+        private final UserRepository userRepository;
+
+        ProbeController(UserRepository userRepository) {
+            this.userRepository = userRepository;
+        }
+
+        @GetMapping("/public/database-busy-probe")
+        public long probe() {
+            return userRepository.count();
+        }
+    }
+
+}
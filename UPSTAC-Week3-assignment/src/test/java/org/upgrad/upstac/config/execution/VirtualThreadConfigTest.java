@@ -0,0 +1,77 @@
+package org.upgrad.upstac.config.execution;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.sql.DataSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Runs the whole application with execution.mode=VIRTUAL; skipped unless the tests run on Java 21+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {"execution.mode=VIRTUAL", "execution.jdbc.permits=2"})
+@ActiveProfiles("test")
+class VirtualThreadConfigTest {
+
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    @Autowired
+    DataSource dataSource;
+
+    @BeforeAll
+    public static void requireVirtualThreads() {
+        assumeTrue(VirtualThreads.isSupported(), "virtual threads need a Java 21 runtime");
+    }
+
+    @Test
+    public void request_in_virtual_mode_should_run_on_a_virtual_thread_through_the_bounded_datasource() {
+
+        //Act
+        String result = restTemplate.getForObject("/public/execution-mode-probe", String.class);
+
+        //Assert
+        assertThat(result, startsWith("VirtualThread"));
+        assertThat(dataSource, instanceOf(BoundedDataSource.class));
+        assertEquals(2, ((BoundedDataSource) dataSource).permits.availablePermits());
+
+    }
+
+    @TestConfiguration
+    static class ProbeConfig {
+
+        @Bean
+        public ProbeController executionModeProbe(JdbcTemplate jdbcTemplate) {
+            return new ProbeController(jdbcTemplate);
+        }
+    }
+
+    @RestController
+    static class ProbeController {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        ProbeController(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @GetMapping("/public/execution-mode-probe")
+        public String probe() {
+            jdbcTemplate.queryForObject("select 1", Integer.class);
+            return Thread.currentThread().toString();
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+package org.upgrad.upstac.config.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.upgrad.upstac.users.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({RepositoryMetricsPostProcessor.class, RepositoryMetricsPostProcessorTest.MeterRegistryConfiguration.class})
+class RepositoryMetricsPostProcessorTest {
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    public void repository_calls_should_be_timed_per_method() {
+
+        //Act
+        userRepository.findByUserName("nobody");
+        userRepository.findByUserName("nobody");
+
+        //Assert
+        assertEquals(2, meterRegistry.get(RepositoryMetricsPostProcessor.REPOSITORY_TIMER)
+                .tag("repository", "UserRepository")
+                .tag("method", "findByUserName")
+                .tag("exception", "none")
+                .timer().count());
+
+    }
+
+    @TestConfiguration
+    static class MeterRegistryConfiguration {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+package org.upgrad.upstac.config.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+import org.upgrad.upstac.users.User;
+import org.upgrad.upstac.users.UserService;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+
+class BoundedBCryptPasswordEncoderTest {
+
+    BoundedBCryptPasswordEncoder encoder = new BoundedBCryptPasswordEncoder(5, true, 1, 1);
+
+    @AfterEach
+    public void tearDown() {
+        encoder.destroy();
+    }
+
+    @Test
+    public void encode_with_full_queue_should_fail_fast_with_service_unavailable() throws Exception {
+
+        //Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        encoder.executor.submit(() -> {
+            release.await();
+            return null;
+        });
+        encoder.executor.submit(() -> null);
+
+        //Act
+        ResponseStatusException result = assertThrows(ResponseStatusException.class, () -> {
+            encoder.encode("password");
+        });
+        release.countDown();
+
+        //Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, result.getStatus());
+
+    }
+
+    @Test
+    public void upgradeEncoding_with_configured_strength_should_flag_hashes_with_any_other_cost() {
+
+        //Arrange
+        String weaker = new BCryptPasswordEncoder(4).encode("password");
+        String stronger = new BCryptPasswordEncoder(6).encode("password");
+        String current = encoder.encode("password");
+
+        //Act & Assert
+        assertTrue(encoder.upgradeEncoding(weaker));
+        assertTrue(encoder.upgradeEncoding(stronger));
+        assertFalse(encoder.upgradeEncoding(current));
+        assertTrue(encoder.matches("password", current));
+
+    }
+
+    @Test
+    public void upgradeEncoding_with_calibrated_strength_should_keep_stored_hashes() {
+
+        //Arrange
+        BoundedBCryptPasswordEncoder calibrated = new BoundedBCryptPasswordEncoder(5, false, 1, 1);
+        String weaker = new BCryptPasswordEncoder(4).encode("password");
+        String stronger = new BCryptPasswordEncoder(6).encode("password");
+
+        //Act & Assert
+        assertFalse(calibrated.upgradeEncoding(weaker));
+        assertFalse(calibrated.upgradeEncoding(stronger));
+        calibrated.destroy();
+
+    }
+
+    @Test
+    public void login_with_weaker_hash_should_rehash_password() {
+
+        //Arrange
+        User user = new User();
+        user.setUserName("someuser");
+        user.setPassword(new BCryptPasswordEncoder(4).encode("password"));
+        user.setRoles(Collections.emptySet());
+
+        UserService userService = Mockito.mock(UserService.class);
+        Mockito.when(userService.findByUserName("someuser")).thenReturn(user);
+
+        UpgradUserDetailsService userDetailsService = new UpgradUserDetailsService(userService);
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(userDetailsService);
+        provider.setUserDetailsPasswordService(userDetailsService);
+        provider.setPasswordEncoder(encoder);
+
+        //Act
+        provider.authenticate(new UsernamePasswordAuthenticationToken("someuser", "password"));
+
+        //Assert
+        Mockito.verify(userService).updatePassword(eq(user), startsWith("$2a$05$"));
+
+    }
+
+    @Test
+    public void calibrate_should_stay_within_bounds() {
+
+        //Act
+        int result = BoundedBCryptPasswordEncoder.calibrate(1);
+
+        //Assert
+        assertEquals(BoundedBCryptPasswordEncoder.MIN_STRENGTH, result);
+
+    }
+
+}
@@ -0,0 +1,47 @@
+package org.upgrad.upstac.config.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class JwtAuthenticationFilterTest {
+
+    JwtAuthenticationFilter jwtAuthenticationFilter = new JwtAuthenticationFilter();
+
+    @Test
+    public void getAuthorizationHeader_should_take_query_token_for_event_streams() {
+
+        //Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/labrequests/to-be-tested/events");
+        request.addHeader(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE);
+        request.setParameter(JwtAuthenticationFilter.TOKEN_PARAMETER, "sometoken");
+
+        //Act
+        String result = jwtAuthenticationFilter.getAuthorizationHeader(request);
+
+        //Assert
+        assertEquals("Bearer sometoken", result);
+
+    }
+
+    @Test
+    public void getAuthorizationHeader_should_ignore_query_token_for_other_requests() {
+
+        //Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/labrequests/to-be-tested");
+        request.addHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+        request.setParameter(JwtAuthenticationFilter.TOKEN_PARAMETER, "sometoken");
+
+        //Act
+        String result = jwtAuthenticationFilter.getAuthorizationHeader(request);
+
+        //Assert
+        assertNull(result);
+
+    }
+
+}
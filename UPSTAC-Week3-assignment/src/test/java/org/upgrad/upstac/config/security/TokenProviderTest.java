@@ -0,0 +1,57 @@
+package org.upgrad.upstac.config.security;
+
+import io.jsonwebtoken.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TokenProviderTest {
+
+    TokenProvider tokenProvider;
+    String token;
+
+    @BeforeEach
+    public void setUp() {
+
+        tokenProvider = new TokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "secretKey", "somesecret");
+        ReflectionTestUtils.setField(tokenProvider, "cacheMaxSize", 100L);
+        tokenProvider.initializeCache();
+
+        token = tokenProvider.generateToken(new UsernamePasswordAuthenticationToken("tester", "", AuthorityUtils.createAuthorityList("TESTER", "USER")));
+    }
+
+    @Test
+    public void verify_should_parse_each_token_once() {
+
+        //Act
+        TokenProvider.VerifiedToken first = tokenProvider.verify(token);
+        TokenProvider.VerifiedToken second = tokenProvider.verify(token);
+
+        //Assert
+        assertSame(first, second);
+        assertEquals("tester", tokenProvider.getUsernameFromToken(token));
+        assertEquals(AuthorityUtils.createAuthorityList("TESTER", "USER"), first.getAuthorities());
+
+    }
+
+    @Test
+    public void verify_with_tampered_token_should_throw_error() {
+
+        //Arrange
+        String tampered = token.substring(0, token.length() - 2) + "xx";
+
+        //Act & Assert
+        assertThrows(SignatureException.class, () -> {
+            tokenProvider.verify(tampered);
+        });
+
+    }
+
+}
@@ -0,0 +1,143 @@
+package org.upgrad.upstac.government;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.upgrad.upstac.testrequests.RequestStatus;
+import org.upgrad.upstac.testrequests.TestRequest;
+import org.upgrad.upstac.testrequests.TestRequestStatusChangedEvent;
+import org.upgrad.upstac.testrequests.consultation.Consultation;
+import org.upgrad.upstac.testrequests.consultation.DoctorSuggestion;
+import org.upgrad.upstac.testrequests.lab.LabResult;
+import org.upgrad.upstac.testrequests.lab.TestStatus;
+import org.upgrad.upstac.users.User;
+import org.upgrad.upstac.users.models.AccountStatus;
+import org.upgrad.upstac.users.models.Gender;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(TestRequestAnalytics.class)
+class TestRequestAnalyticsTest {
+
+    @Autowired
+    TestRequestAnalytics testRequestAnalytics;
+
+    @Autowired
+    TestEntityManager testEntityManager;
+
+    User user;
+
+    @BeforeEach
+    public void setUp() {
+
+        user = new User();
+        user.setUserName("someuser");
+        user.setEmail("someuser@upgrad.com");
+        user.setPhoneNumber("123456789");
+        user.setStatus(AccountStatus.APPROVED);
+        testEntityManager.persist(user);
+
+        createCompletedTestRequest(110001, TestStatus.POSITIVE, DoctorSuggestion.ADMIT);
+        createCompletedTestRequest(110001, TestStatus.NEGATIVE, DoctorSuggestion.NO_ISSUES);
+        createCompletedTestRequest(560003, TestStatus.POSITIVE, DoctorSuggestion.HOME_QUARANTINE);
+        createTestRequest(560003, RequestStatus.INITIATED);
+
+        testEntityManager.flush();
+        testEntityManager.clear();
+        testRequestAnalytics.reload();
+    }
+
+    @Test
+    public void reload_should_aggregate_existing_requests() {
+
+        //Act
+        DashboardSummary result = testRequestAnalytics.getSummary();
+
+        //Assert
+        assertEquals(3L, result.getRequestsByStatus().get(RequestStatus.COMPLETED));
+        assertEquals(1L, result.getRequestsByStatus().get(RequestStatus.INITIATED));
+        assertEquals(2L, result.getLabResultsByStatus().get(TestStatus.POSITIVE));
+        assertEquals(4L, result.getRequestsByDay().get(LocalDate.now()));
+        assertEquals(new PinCodeSummary(110001, 2, 1, 1, 0, 1), result.getPinCodes().get(0));
+        assertEquals(new PinCodeSummary(560003, 1, 1, 0, 1, 0), result.getPinCodes().get(1));
+
+    }
+
+    @Test
+    public void onStatusChanged_should_match_a_fresh_reload() {
+
+        //Arrange
+        TestRequest testRequest = createTestRequest(560003, RequestStatus.INITIATED);
+        testRequestAnalytics.onStatusChanged(new TestRequestStatusChangedEvent(testRequest, null, RequestStatus.INITIATED, user));
+
+        //Act
+        moveTo(testRequest, RequestStatus.LAB_TEST_IN_PROGRESS);
+        testRequest.setLabResult(createLabResult(testRequest, TestStatus.POSITIVE));
+        moveTo(testRequest, RequestStatus.LAB_TEST_COMPLETED);
+        moveTo(testRequest, RequestStatus.DIAGNOSIS_IN_PROCESS);
+        testRequest.setConsultation(createConsultation(testRequest, DoctorSuggestion.ADMIT));
+        moveTo(testRequest, RequestStatus.COMPLETED);
+        DashboardSummary incremental = testRequestAnalytics.getSummary();
+
+        testEntityManager.flush();
+        testEntityManager.clear();
+        testRequestAnalytics.reload();
+
+        //Assert
+        assertEquals(new PinCodeSummary(560003, 2, 2, 0, 1, 1), incremental.getPinCodes().get(1));
+        assertEquals(testRequestAnalytics.getSummary(), incremental);
+
+    }
+
+    void moveTo(TestRequest testRequest, RequestStatus to) {
+        RequestStatus from = testRequest.getStatus();
+        testRequest.setStatus(to);
+        testEntityManager.persistAndFlush(testRequest);
+        testRequestAnalytics.onStatusChanged(new TestRequestStatusChangedEvent(testRequest, from, to, user));
+    }
+
+    void createCompletedTestRequest(Integer pinCode, TestStatus result, DoctorSuggestion suggestion) {
+        TestRequest testRequest = createTestRequest(pinCode, RequestStatus.COMPLETED);
+        createLabResult(testRequest, result);
+        createConsultation(testRequest, suggestion);
+    }
+
+    TestRequest createTestRequest(Integer pinCode, RequestStatus status) {
+        TestRequest testRequest = new TestRequest();
+        testRequest.setName("someuser");
+        testRequest.setCreated(LocalDate.now());
+        testRequest.setStatus(status);
+        testRequest.setAge(40);
+        testRequest.setEmail("someone@somedomain.com");
+        testRequest.setPhoneNumber("123456789");
+        testRequest.setPinCode(pinCode);
+        testRequest.setGender(Gender.MALE);
+        testRequest.setCreatedBy(user);
+        return testEntityManager.persist(testRequest);
+    }
+
+    LabResult createLabResult(TestRequest testRequest, TestStatus result) {
+        LabResult labResult = new LabResult();
+        labResult.setRequest(testRequest);
+        labResult.setResult(result);
+        labResult.setUpdatedOn(LocalDate.now());
+        return testEntityManager.persist(labResult);
+    }
+
+    Consultation createConsultation(TestRequest testRequest, DoctorSuggestion suggestion) {
+        Consultation consultation = new Consultation();
+        consultation.setRequest(testRequest);
+        consultation.setSuggestion(suggestion);
+        consultation.setUpdatedOn(LocalDate.now());
+        return testEntityManager.persist(consultation);
+    }
+
+}
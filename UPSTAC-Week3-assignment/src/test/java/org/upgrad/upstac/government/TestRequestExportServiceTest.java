@@ -0,0 +1,120 @@
+package org.upgrad.upstac.government;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.upgrad.upstac.testrequests.RequestStatus;
+import org.upgrad.upstac.testrequests.TestRequest;
+import org.upgrad.upstac.testrequests.lab.LabResult;
+import org.upgrad.upstac.testrequests.lab.TestStatus;
+import org.upgrad.upstac.users.User;
+import org.upgrad.upstac.users.models.AccountStatus;
+import org.upgrad.upstac.users.models.Gender;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(TestRequestExportService.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class TestRequestExportServiceTest {
+
+    @Autowired
+    TestRequestExportService testRequestExportService;
+
+    @Autowired
+    TestEntityManager testEntityManager;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @BeforeEach
+    public void setUp() {
+
+        User user = new User();
+        user.setUserName("someuser");
+        user.setEmail("someuser@upgrad.com");
+        user.setPhoneNumber("123456789");
+        user.setStatus(AccountStatus.APPROVED);
+        testEntityManager.persist(user);
+
+        TestRequest tested = createTestRequest(user, "Some, User", RequestStatus.LAB_TEST_COMPLETED);
+        LabResult labResult = new LabResult();
+        labResult.setRequest(tested);
+        labResult.setResult(TestStatus.POSITIVE);
+        labResult.setBloodPressure("120/80");
+        labResult.setUpdatedOn(LocalDate.now());
+        testEntityManager.persist(labResult);
+
+        createTestRequest(user, "someuser", RequestStatus.INITIATED);
+
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    @Test
+    public void export_as_csv_should_write_header_and_one_line_per_request() {
+
+        //Arrange
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        //Act
+        long count = testRequestExportService.export(ExportFormat.CSV, outputStream);
+
+        //Assert
+        String[] lines = new String(outputStream.toByteArray(), StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(2, count);
+        assertEquals(3, lines.length);
+        assertEquals(String.join(",", TestRequestExportRow.COLUMNS), lines[0]);
+        assertTrue(lines[1].contains(",\"Some, User\",MALE,40,716768,POSITIVE,120/80,,,,"));
+
+    }
+
+    @Test
+    public void export_as_ndjson_should_write_one_json_object_per_line() throws Exception {
+
+        //Arrange
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        //Act
+        long count = testRequestExportService.export(ExportFormat.NDJSON, outputStream);
+
+        //Assert
+        String[] lines = new String(outputStream.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("POSITIVE", first.get("result").asText());
+        assertEquals(LocalDate.now().toString(), first.get("testedOn").asText());
+        assertEquals("INITIATED", objectMapper.readTree(lines[1]).get("status").asText());
+
+    }
+
+    TestRequest createTestRequest(User user, String name, RequestStatus status) {
+        TestRequest testRequest = new TestRequest();
+        testRequest.setName(name);
+        testRequest.setCreated(LocalDate.now());
+        testRequest.setStatus(status);
+        testRequest.setAge(40);
+        testRequest.setEmail("someone@somedomain.com");
+        testRequest.setPhoneNumber("123456789");
+        testRequest.setPinCode(716768);
+        testRequest.setGender(Gender.MALE);
+        testRequest.setCreatedBy(user);
+        return testEntityManager.persist(testRequest);
+    }
+
+}
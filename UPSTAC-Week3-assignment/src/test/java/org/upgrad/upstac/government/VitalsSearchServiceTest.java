@@ -0,0 +1,128 @@
+package org.upgrad.upstac.government;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.upgrad.upstac.exception.AppException;
+import org.upgrad.upstac.testrequests.RequestStatus;
+import org.upgrad.upstac.testrequests.TestRequest;
+import org.upgrad.upstac.testrequests.lab.LabResult;
+import org.upgrad.upstac.testrequests.lab.TestStatus;
+import org.upgrad.upstac.users.User;
+import org.upgrad.upstac.users.models.AccountStatus;
+import org.upgrad.upstac.users.models.Gender;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(VitalsSearchService.class)
+class VitalsSearchServiceTest {
+
+    @Autowired
+    VitalsSearchService vitalsSearchService;
+
+    @Autowired
+    TestEntityManager testEntityManager;
+
+    User user;
+
+    @BeforeEach
+    public void setUp() {
+
+        user = new User();
+        user.setUserName("someuser");
+        user.setEmail("someuser@upgrad.com");
+        user.setPhoneNumber("123456789");
+        user.setStatus(AccountStatus.APPROVED);
+        testEntityManager.persist(user);
+
+        createLabResult(110001, "89.5", Instant.now());
+        createLabResult(110001, "97.0", Instant.now());
+        createLabResult(560003, "90.0", Instant.now());
+        createLabResult(110001, "88.0", Instant.now().minus(Duration.ofDays(30)));
+
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    @Test
+    public void search_should_return_low_oxygen_readings_of_pin_code_within_the_last_week() {
+
+        //Act
+        VitalsReadingPage result = vitalsSearchService.search(null, null, 110001, new BigDecimal("92"), null, null, null, null);
+
+        //Assert
+        assertEquals(1, result.getItems().size());
+        assertEquals(110001, result.getItems().get(0).getPinCode());
+        assertEquals(new BigDecimal("89.5"), result.getItems().get(0).getOxygenSaturation());
+        assertNull(result.getNextCursor());
+
+    }
+
+    @Test
+    public void search_should_page_newest_requests_first_and_continue_from_the_cursor() {
+
+        //Act
+        VitalsReadingPage first = vitalsSearchService.search(null, null, null, null, null, null, null, 2);
+        VitalsReadingPage second = vitalsSearchService.search(null, null, null, null, null, null, first.getNextCursor(), 2);
+
+        //Assert
+        assertEquals(2, first.getItems().size());
+        assertEquals(560003, first.getItems().get(0).getPinCode());
+        assertEquals(first.getItems().get(1).getRequestId(), first.getNextCursor());
+        assertEquals(1, second.getItems().size());
+        assertEquals(new BigDecimal("89.5"), second.getItems().get(0).getOxygenSaturation());
+        assertNull(second.getNextCursor());
+
+    }
+
+    @Test
+    public void search_with_from_after_to_should_throw_error() {
+
+        //Act
+        AppException result = assertThrows(AppException.class, () -> {
+            vitalsSearchService.search(LocalDate.now(), LocalDate.now().minusDays(1), null, null, null, null, null, null);
+        });
+
+        //Assert
+        assertEquals("from must not be after to", result.getMessage());
+
+    }
+
+    void createLabResult(Integer pinCode, String oxygenSaturation, Instant updatedAt) {
+
+        TestRequest testRequest = new TestRequest();
+        testRequest.setName("someuser");
+        testRequest.setCreated(LocalDate.now());
+        testRequest.setStatus(RequestStatus.LAB_TEST_COMPLETED);
+        testRequest.setAge(40);
+        testRequest.setEmail("someone@somedomain.com");
+        testRequest.setPhoneNumber("123456789");
+        testRequest.setPinCode(pinCode);
+        testRequest.setGender(Gender.MALE);
+        testRequest.setCreatedBy(user);
+        testEntityManager.persist(testRequest);
+
+        LabResult labResult = new LabResult();
+        labResult.setRequest(testRequest);
+        labResult.setPinCode(pinCode);
+        labResult.setResult(TestStatus.POSITIVE);
+        labResult.setOxygenSaturation(new BigDecimal(oxygenSaturation));
+        labResult.setUpdatedAt(updatedAt);
+        testEntityManager.persist(labResult);
+    }
+
+}
@@ -0,0 +1,153 @@
+package org.upgrad.upstac.testrequests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.upgrad.upstac.exception.AppException;
+import org.upgrad.upstac.users.User;
+import org.upgrad.upstac.users.UserRepository;
+import org.upgrad.upstac.users.models.AccountStatus;
+import org.upgrad.upstac.users.models.Gender;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({TestRequestService.class, ActiveContactService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ActiveContactServiceTest {
+
+    static final int THREAD_COUNT = 16;
+
+    @Autowired
+    TestRequestService testRequestService;
+
+    @Autowired
+    ActiveContactService activeContactService;
+
+    @Autowired
+    TestRequestRepository testRequestRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    User user;
+    String prefix;
+
+    @BeforeEach
+    public void setUp() {
+
+        prefix = String.valueOf(System.nanoTime());
+
+        user = new User();
+        user.setUserName("user" + prefix);
+        user.setEmail(prefix + "@upgrad.com");
+        user.setPhoneNumber(prefix);
+        user.setStatus(AccountStatus.APPROVED);
+        user = userRepository.save(user);
+    }
+
+    @Test
+    public void keysFor_should_normalize_email_and_phone_number() {
+
+        //Act
+        LinkedHashSet<String> result = new LinkedHashSet<>(ActiveContactService.keysFor(" Some.One@Domain.com ", "+91 98765-43210"));
+
+        //Assert
+        assertEquals(new LinkedHashSet<>(Arrays.asList("email:some.one@domain.com", "phone:919876543210")), result);
+        assertTrue(ActiveContactService.keysFor("", null).isEmpty());
+
+    }
+
+    @Test
+    public void createTestRequestFrom_called_concurrently_for_same_contact_should_create_one_request() throws Exception {
+
+        //Arrange
+        ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> outcomes = new ArrayList<>();
+
+        Callable<Boolean> create = () -> {
+            start.await();
+            try {
+                testRequestService.createTestRequestFrom(user, createTestRequest(prefix + "@somedomain.com", prefix));
+                return true;
+            } catch (AppException e) {
+                return false;
+            }
+        };
+
+        //Act
+        for (int i = 0; i < THREAD_COUNT; i++)
+            outcomes.add(executorService.submit(create));
+        start.countDown();
+
+        int created = 0;
+        for (Future<Boolean> outcome : outcomes)
+            if (outcome.get())
+                created++;
+        executorService.shutdown();
+
+        //Assert
+        assertEquals(1, created);
+        assertEquals(1, testRequestRepository.findByEmail(prefix + "@somedomain.com").size());
+
+    }
+
+    @Test
+    public void backfill_should_reserve_contacts_of_requests_in_progress_only() {
+
+        //Arrange
+        saveTestRequest("busy", RequestStatus.DIAGNOSIS_IN_PROCESS);
+        saveTestRequest("done", RequestStatus.COMPLETED);
+
+        //Act
+        activeContactService.backfill();
+
+        //Assert
+        assertTrue(activeContactService.isInProgress(prefix + "BUSY@somedomain.com", null));
+        assertFalse(activeContactService.isInProgress(prefix + "done@somedomain.com", null));
+
+    }
+
+    CreateTestRequest createTestRequest(String email, String phoneNumber) {
+        CreateTestRequest createTestRequest = new CreateTestRequest();
+        createTestRequest.setName("someuser");
+        createTestRequest.setAge(40);
+        createTestRequest.setEmail(email);
+        createTestRequest.setPhoneNumber(phoneNumber);
+        createTestRequest.setPinCode(716768);
+        createTestRequest.setGender(Gender.MALE);
+        return createTestRequest;
+    }
+
+    void saveTestRequest(String email, RequestStatus status) {
+        TestRequest testRequest = new TestRequest();
+        testRequest.setName("someuser");
+        testRequest.setCreated(LocalDate.now());
+        testRequest.setStatus(status);
+        testRequest.setEmail(prefix + email + "@somedomain.com");
+        testRequest.setGender(Gender.MALE);
+        testRequest.setCreatedBy(user);
+        testRequestRepository.save(testRequest);
+    }
+
+}
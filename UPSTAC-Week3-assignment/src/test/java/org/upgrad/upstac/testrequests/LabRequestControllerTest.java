@@ -10,6 +10,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.test.context.support.WithUserDetails;
 import org.springframework.web.server.ResponseStatusException;
 import org.upgrad.upstac.config.security.UserLoggedInService;
@@ -21,6 +22,8 @@ import org.upgrad.upstac.users.User;
 import org.upgrad.upstac.users.models.Gender;
 
 import javax.validation.constraints.NotNull;
+import java.util.Collections;
+import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
@@ -83,6 +86,47 @@ class LabRequestControllerTest {
 
     }
 
+    @Test
+    public void calling_getForTests_when_more_requests_are_queued_should_return_next_cursor_header(){
+
+        //Arrange
+        TestRequest  mockedTestRequest = testRequest();
+        mockedTestRequest.setRequestId(21L);
+        TestRequestSummaryPage page = new TestRequestSummaryPage(Collections.singletonList(TestRequestSummary.from(mockedTestRequest)), 21L);
+
+        User user = createUser();
+        Mockito.when(userLoggedInService.getLoggedInUser()).thenReturn(user);
+        Mockito.when(testRequestQueryService.findForTester(user, null, 1)).thenReturn(page);
+
+        //Act
+        ResponseEntity<List<TestRequestSummary>> response = labRequestController.getForTests(null, 1);
+
+        // Assert
+        assertEquals(1, response.getBody().size());
+        assertEquals(mockedTestRequest.getRequestId(), response.getBody().get(0).getRequestId());
+        assertEquals("21", response.getHeaders().getFirst(TestRequestSummaryPage.NEXT_CURSOR_HEADER));
+
+    }
+
+    @Test
+    public void calling_getForTests_on_last_page_should_not_return_next_cursor_header(){
+
+        //Arrange
+        TestRequestSummaryPage page = new TestRequestSummaryPage(Collections.emptyList(), null);
+
+        User user = createUser();
+        Mockito.when(userLoggedInService.getLoggedInUser()).thenReturn(user);
+        Mockito.when(testRequestQueryService.findForTester(user, 21L, null)).thenReturn(page);
+
+        //Act
+        ResponseEntity<List<TestRequestSummary>> response = labRequestController.getForTests(21L, null);
+
+        // Assert
+        assertTrue(response.getBody().isEmpty());
+        assertFalse(response.getHeaders().containsKey(TestRequestSummaryPage.NEXT_CURSOR_HEADER));
+
+    }
+
     public TestRequest getTestRequestByStatus(RequestStatus status) {
         return testRequestQueryService.findBy(status).stream().findFirst().get();
     }
@@ -0,0 +1,161 @@
+package org.upgrad.upstac.testrequests;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.upgrad.upstac.testrequests.BulkTestRequestOutcome.Status;
+import org.upgrad.upstac.users.User;
+import org.upgrad.upstac.users.UserRepository;
+import org.upgrad.upstac.users.models.AccountStatus;
+import org.upgrad.upstac.users.models.Gender;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({TestRequestBulkService.class, ActiveContactService.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TestRequestBulkServiceTest {
+
+    @Autowired
+    TestRequestBulkService testRequestBulkService;
+
+    @Autowired
+    TestRequestRepository testRequestRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    ActiveContactService activeContactService;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    User user;
+    String prefix;
+
+    @BeforeEach
+    public void setUp() {
+
+        prefix = String.valueOf(System.nanoTime());
+
+        user = new User();
+        user.setUserName("user" + prefix);
+        user.setEmail(prefix + "@upgrad.com");
+        user.setPhoneNumber(prefix);
+        user.setStatus(AccountStatus.APPROVED);
+        user = userRepository.save(user);
+    }
+
+    @Test
+    public void createTestRequestsFrom_json_array_should_report_each_row() throws Exception {
+
+        //Arrange
+        String upload = "[" + row("a", "1") + "," + row("b", "1") + "," + row(null, null) + "]";
+
+        //Act
+        List<BulkTestRequestOutcome> result = testRequestBulkService.createTestRequestsFrom(user, asStream(upload));
+
+        //Assert
+        assertEquals(3, result.size());
+        assertEquals(Status.CREATED, result.get(0).getStatus());
+        assertNotNull(result.get(0).getRequestId());
+        assertEquals(Status.DUPLICATE_IN_UPLOAD, result.get(1).getStatus());
+        assertEquals(Status.INVALID, result.get(2).getStatus());
+
+    }
+
+    @Test
+    public void createTestRequestsFrom_ndjson_should_skip_contacts_with_requests_in_progress() throws Exception {
+
+        //Arrange
+        saveTestRequest("busy", RequestStatus.LAB_TEST_IN_PROGRESS);
+        saveTestRequest("done", RequestStatus.COMPLETED);
+        String upload = row("busy", "2") + "\n" + row("done", "3") + "\n";
+
+        //Act
+        List<BulkTestRequestOutcome> result = testRequestBulkService.createTestRequestsFrom(user, asStream(upload));
+
+        //Assert
+        assertEquals(Status.ALREADY_IN_PROGRESS, result.get(0).getStatus());
+        assertEquals(Status.CREATED, result.get(1).getStatus());
+
+    }
+
+    @Test
+    public void createTestRequestsFrom_many_rows_should_insert_in_batches() throws Exception {
+
+        //Arrange
+        int rows = 2 * TestRequestBulkService.CHUNK_SIZE + 10;
+        String upload = IntStream.range(0, rows)
+                .mapToObj(index -> row("row" + index, "9" + index))
+                .collect(Collectors.joining("\n"));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        //Act
+        List<BulkTestRequestOutcome> result = testRequestBulkService.createTestRequestsFrom(user, asStream(upload));
+
+        //Assert
+        assertEquals(rows, result.stream().filter(outcome -> outcome.getStatus() == Status.CREATED).count());
+        // test requests go through one JDBC batch per chunk, only the email and phone contact keys through JPA
+        assertEquals(2L * rows, statistics.getEntityInsertCount());
+        assertThat(statistics.getPrepareStatementCount(), lessThan((long) rows / 4));
+        BulkTestRequestOutcome last = result.get(rows - 1);
+        TestRequest saved = testRequestRepository.findById(last.getRequestId()).get();
+        assertEquals(prefix + "row" + (rows - 1) + "@somedomain.com", saved.getEmail());
+        assertEquals(RequestStatus.INITIATED, saved.getStatus());
+        assertEquals(user.getId(), saved.getCreatedBy().getId());
+
+    }
+
+    String row(String email, String phoneNumber) {
+        return "{\"name\":\"someuser\",\"gender\":\"MALE\",\"age\":40,\"pinCode\":716768"
+                + (null == email ? "" : ",\"email\":\"" + prefix + email + "@somedomain.com\"")
+                + (null == phoneNumber ? "" : ",\"phoneNumber\":\"" + prefix + phoneNumber + "\"")
+                + "}";
+    }
+
+    void saveTestRequest(String email, RequestStatus status) {
+        TestRequest testRequest = new TestRequest();
+        testRequest.setName("someuser");
+        testRequest.setCreated(LocalDate.now());
+        testRequest.setStatus(status);
+        testRequest.setAge(40);
+        testRequest.setEmail(prefix + email + "@somedomain.com");
+        testRequest.setPinCode(716768);
+        testRequest.setGender(Gender.MALE);
+        testRequest.setCreatedBy(user);
+        testRequestRepository.save(testRequest);
+        if (status != RequestStatus.COMPLETED)
+            activeContactService.reserve(Collections.singletonList(testRequest));
+    }
+
+    static ByteArrayInputStream asStream(String upload) {
+        return new ByteArrayInputStream(upload.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -14,6 +14,7 @@ import org.upgrad.upstac.users.User;
 import org.upgrad.upstac.users.models.Gender;
 
 import java.time.LocalDate;
+import java.util.Optional;
 
 import static org.hibernate.validator.internal.util.Contracts.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -32,6 +33,9 @@ class TestRequestControllerTest {
     @Mock
     UserLoggedInService userLoggedInService;
 
+    @Mock
+    TestRequestQueryService testRequestQueryService;
+
     @Test
     public void when_testRequestCreateService_createTestRequestFrom_returns_valid_expect_same_as_response(){
 
@@ -75,6 +79,26 @@ class TestRequestControllerTest {
 
     }
 
+    @Test
+    public void calling_getTestRequest_for_a_request_the_user_cannot_see_should_throw_bad_request(){
+
+        //Arrange
+        User user= createUser();
+        Mockito.when(userLoggedInService.getLoggedInUser()).thenReturn(user);
+        Mockito.when(testRequestQueryService.findTestRequestForUserByID(user, 21L)).thenReturn(Optional.empty());
+
+        //Act
+        ResponseStatusException result = assertThrows(ResponseStatusException.class,()->{
+
+            testRequestController.getTestRequest(21L);
+        });
+
+        //Assert
+        assertEquals(HttpStatus.BAD_REQUEST, result.getStatus());
+        assertEquals("Invalid ID",result.getReason());
+
+    }
+
     public CreateTestRequest createTestRequest() {
         CreateTestRequest createTestRequest = new CreateTestRequest();
         createTestRequest.setAddress("some Addres");
@@ -6,6 +6,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.upgrad.upstac.exception.AppException;
 import org.upgrad.upstac.users.User;
 import org.upgrad.upstac.users.models.Gender;
@@ -25,6 +26,12 @@ class TestRequestCreateServiceTest {
     @Mock
     TestRequestRepository testRequestRepository;
 
+    @Mock
+    ApplicationEventPublisher applicationEventPublisher;
+
+    @Mock
+    ActiveContactService activeContactService;
+
 
     @InjectMocks
     TestRequestService testRequestService;
@@ -46,11 +53,10 @@ class TestRequestCreateServiceTest {
 
 
         //Mock
-        //testRequestRepository.findByEmailOrPhoneNumber
-        //returns  List<TestRequest>
+        //activeContactService.isInProgress
+        //returns  boolean
 
-        List<TestRequest> existingTestRequests = new ArrayList<>();
-        Mockito.when(testRequestRepository.findByEmailOrPhoneNumber(createTestRequest.getEmail(),createTestRequest.getPhoneNumber())).thenReturn(existingTestRequests);
+        Mockito.when(activeContactService.isInProgress(createTestRequest.getEmail(),createTestRequest.getPhoneNumber())).thenReturn(false);
 
         //testRequestRepository.save
         //return TestRequest
@@ -90,11 +96,10 @@ class TestRequestCreateServiceTest {
 
 
         //Mock
-        //testRequestRepository.findByEmailOrPhoneNumber
-            //returns  List<TestRequest>
+        //activeContactService.isInProgress
+            //returns  boolean
 
-        List<TestRequest> existingTestRequests = getExistingTestRequests();
-        Mockito.when(testRequestRepository.findByEmailOrPhoneNumber(createTestRequest.getEmail(),createTestRequest.getPhoneNumber())).thenReturn(existingTestRequests);
+        Mockito.when(activeContactService.isInProgress(createTestRequest.getEmail(),createTestRequest.getPhoneNumber())).thenReturn(true);
         //testRequestRepository.save
         //return TestRequest
 
@@ -0,0 +1,277 @@
+package org.upgrad.upstac.testrequests;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.upgrad.upstac.testrequests.consultation.Consultation;
+import org.upgrad.upstac.testrequests.consultation.DoctorSuggestion;
+import org.upgrad.upstac.testrequests.lab.LabResult;
+import org.upgrad.upstac.testrequests.lab.TestStatus;
+import org.upgrad.upstac.users.User;
+import org.upgrad.upstac.users.models.AccountStatus;
+import org.upgrad.upstac.users.models.Gender;
+import org.upgrad.upstac.users.roles.Role;
+import org.upgrad.upstac.users.roles.UserRole;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({TestRequestQueryService.class, LabQueueRouter.class})
+class TestRequestQueryServiceTest {
+
+    static final int REQUEST_COUNT = 30;
+    static final long MAX_STATEMENTS = 3;
+
+    @Autowired
+    TestRequestQueryService testRequestQueryService;
+
+    @Autowired
+    TestEntityManager testEntityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    User tester;
+    User doctor;
+    Long requestId;
+    List<User> creators;
+
+    @Autowired
+    TestRequestRepository testRequestRepository;
+
+    @Autowired
+    LabQueueRouter labQueueRouter;
+
+    @BeforeEach
+    public void setUp() {
+
+        Role userRole = createRole(UserRole.USER);
+        tester = createUser("tester", createRole(UserRole.TESTER));
+        doctor = createUser("doctor", createRole(UserRole.DOCTOR));
+
+        creators = new ArrayList<>();
+        for (int i = 0; i < 5; i++)
+            creators.add(createUser("user" + i, userRole));
+
+        for (int i = 0; i < REQUEST_COUNT; i++) {
+            TestRequest testRequest = createTestRequest(creators.get(i % creators.size()), i);
+            requestId = testRequest.getRequestId();
+            createLabResult(testRequest, tester);
+            createConsultation(testRequest, doctor);
+        }
+
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    @Test
+    public void findByTester_should_load_all_requests_with_a_fixed_number_of_statements() {
+
+        //Arrange
+        Statistics statistics = getStatistics();
+
+        //Act
+        List<TestRequest> result = testRequestQueryService.findByTester(tester);
+
+        //Assert
+        assertEquals(REQUEST_COUNT, result.size());
+        assertThat(statistics.getPrepareStatementCount(), lessThanOrEqualTo(MAX_STATEMENTS));
+
+    }
+
+    @Test
+    public void findByDoctor_should_load_all_requests_with_a_fixed_number_of_statements() {
+
+        //Arrange
+        Statistics statistics = getStatistics();
+
+        //Act
+        List<TestRequest> result = testRequestQueryService.findByDoctor(doctor);
+
+        //Assert
+        assertEquals(REQUEST_COUNT, result.size());
+        assertThat(statistics.getPrepareStatementCount(), lessThanOrEqualTo(MAX_STATEMENTS));
+
+    }
+
+    @Test
+    public void findTestRequestForUserByID_should_dispatch_on_roles_of_loaded_user() {
+
+        //Arrange
+        User loadedTester = testEntityManager.find(User.class, tester.getId());
+
+        //Act
+        Optional<TestRequest> result = testRequestQueryService.findTestRequestForUserByID(loadedTester, requestId);
+
+        //Assert
+        assertEquals(EnumSet.of(UserRole.TESTER), loadedTester.getUserRoles());
+        assertTrue(result.isPresent());
+        assertFalse(loadedTester.doesRoleIsDoctor());
+
+    }
+
+    @Test
+    public void findByTesterAndID_should_check_ownership_and_load_request_in_one_query() {
+
+        //Arrange
+        Statistics statistics = getStatistics();
+
+        //Act
+        Optional<TestRequest> result = testRequestQueryService.findByTesterAndID(tester, requestId);
+        long statements = statistics.getPrepareStatementCount();
+        Optional<TestRequest> notOwned = testRequestQueryService.findByDoctorAndID(tester, requestId);
+
+        //Assert
+        assertTrue(result.isPresent());
+        assertEquals(tester.getId(), result.get().getLabResult().getTester().getId());
+        assertFalse(notOwned.isPresent());
+        assertThat(statements, lessThanOrEqualTo(MAX_STATEMENTS));
+
+    }
+
+    @Test
+    public void findSummariesByCreatedBy_should_page_newest_first_in_one_query() {
+
+        //Arrange
+        Statistics statistics = getStatistics();
+        User creator = creators.get(0);
+
+        //Act
+        List<TestRequestSummary> firstPage = testRequestRepository.findSummariesByCreatedBy(creator, Long.MAX_VALUE, PageRequest.of(0, 4));
+        List<TestRequestSummary> secondPage = testRequestRepository.findSummariesByCreatedBy(creator, firstPage.get(3).getRequestId(), PageRequest.of(0, 4));
+
+        //Assert
+        assertEquals(4, firstPage.size());
+        assertEquals(2, secondPage.size());
+        assertTrue(firstPage.get(0).getRequestId() > firstPage.get(1).getRequestId());
+        assertTrue(firstPage.get(3).getRequestId() > secondPage.get(0).getRequestId());
+        assertEquals(tester.getId(), firstPage.get(0).getLabResult().getTesterId());
+        assertEquals(doctor.getId(), firstPage.get(0).getConsultation().getDoctorId());
+        assertEquals(2L, statistics.getPrepareStatementCount());
+
+    }
+
+    @Test
+    public void findBy_status_page_should_load_summaries_in_one_query() {
+
+        //Arrange
+        Statistics statistics = getStatistics();
+
+        //Act
+        TestRequestSummaryPage firstPage = testRequestQueryService.findBy(RequestStatus.COMPLETED, null, 20);
+        TestRequestSummaryPage secondPage = testRequestQueryService.findBy(RequestStatus.COMPLETED, firstPage.getNextCursor(), 20);
+
+        //Assert
+        assertEquals(20, firstPage.getItems().size());
+        assertEquals(REQUEST_COUNT - 20, secondPage.getItems().size());
+        assertNull(secondPage.getNextCursor());
+        assertTrue(firstPage.getItems().get(19).getRequestId() < secondPage.getItems().get(0).getRequestId());
+        assertEquals(tester.getId(), secondPage.getItems().get(0).getLabResult().getTesterId());
+        assertEquals(2L, statistics.getPrepareStatementCount());
+
+    }
+
+    @Test
+    public void findForTester_with_pin_code_routing_should_page_the_testers_area_from_the_database() {
+
+        //Arrange
+        tester.setPinCode(716001);
+        TestRequest inArea = createTestRequest(creators.get(0), 100);
+        inArea.setStatus(RequestStatus.INITIATED);
+        TestRequest outsideArea = createTestRequest(creators.get(0), 101);
+        outsideArea.setStatus(RequestStatus.INITIATED);
+        outsideArea.setPinCode(400001);
+        testEntityManager.flush();
+        ReflectionTestUtils.setField(labQueueRouter, "mode", LabQueueRouting.PIN_CODE);
+
+        try {
+            //Act
+            TestRequestSummaryPage result = testRequestQueryService.findForTester(tester, null, null);
+
+            //Assert
+            assertEquals(1, result.getItems().size());
+            assertEquals(inArea.getRequestId(), result.getItems().get(0).getRequestId());
+            assertNull(result.getNextCursor());
+        } finally {
+            ReflectionTestUtils.setField(labQueueRouter, "mode", LabQueueRouting.NATIONAL);
+        }
+
+    }
+
+    Statistics getStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    Role createRole(UserRole userRole) {
+        Role role = new Role();
+        role.setName(userRole.name());
+        return testEntityManager.persist(role);
+    }
+
+    User createUser(String userName, Role role) {
+        User user = new User();
+        user.setUserName(userName);
+        user.setEmail(userName + "@upgrad.com");
+        user.setPhoneNumber(userName + "-phone");
+        user.setStatus(AccountStatus.APPROVED);
+        user.setRoles(Collections.singleton(role));
+        return testEntityManager.persist(user);
+    }
+
+    TestRequest createTestRequest(User user, int index) {
+        TestRequest testRequest = new TestRequest();
+        testRequest.setName("someuser" + index);
+        testRequest.setCreated(LocalDate.now());
+        testRequest.setStatus(RequestStatus.COMPLETED);
+        testRequest.setAge(40);
+        testRequest.setEmail("someone" + index + "@somedomain.com");
+        testRequest.setPhoneNumber("98765" + index);
+        testRequest.setPinCode(716768);
+        testRequest.setGender(Gender.MALE);
+        testRequest.setCreatedBy(user);
+        return testEntityManager.persist(testRequest);
+    }
+
+    void createLabResult(TestRequest testRequest, User tester) {
+        LabResult labResult = new LabResult();
+        labResult.setRequest(testRequest);
+        labResult.setTester(tester);
+        labResult.setResult(TestStatus.NEGATIVE);
+        labResult.setUpdatedOn(LocalDate.now());
+        testEntityManager.persist(labResult);
+    }
+
+    void createConsultation(TestRequest testRequest, User doctor) {
+        Consultation consultation = new Consultation();
+        consultation.setRequest(testRequest);
+        consultation.setDoctor(doctor);
+        consultation.setSuggestion(DoctorSuggestion.NO_ISSUES);
+        consultation.setUpdatedOn(LocalDate.now());
+        testEntityManager.persist(consultation);
+    }
+
+}
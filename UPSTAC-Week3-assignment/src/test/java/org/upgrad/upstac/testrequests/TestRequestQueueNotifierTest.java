@@ -0,0 +1,161 @@
+package org.upgrad.upstac.testrequests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.upgrad.upstac.config.execution.ExecutionMode;
+import org.upgrad.upstac.testrequests.lab.LabResult;
+import org.upgrad.upstac.testrequests.lab.TestStatus;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.upgrad.upstac.users.User;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TestRequestQueueNotifierTest {
+
+    TestRequestQueueNotifier testRequestQueueNotifier;
+    TestRequest testRequest;
+
+    @BeforeEach
+    public void setUp() {
+
+        testRequestQueueNotifier = new TestRequestQueueNotifier(ExecutionMode.PLATFORM);
+        ReflectionTestUtils.setField(testRequestQueueNotifier, "objectMapper", new ObjectMapper());
+
+        testRequest = new TestRequest();
+        testRequest.setRequestId(42L);
+        testRequest.setName("someuser");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        testRequestQueueNotifier.shutdown();
+    }
+
+    @Test
+    public void onStatusChanged_should_send_claimed_to_testers_and_added_to_doctors() throws Exception {
+
+        //Arrange
+        RecordingEmitter tester = record(RequestStatus.INITIATED);
+        RecordingEmitter doctor = record(RequestStatus.LAB_TEST_COMPLETED);
+        LabResult labResult = new LabResult();
+        labResult.setResult(TestStatus.POSITIVE);
+        labResult.setComments("not in the summary");
+        testRequest.setLabResult(labResult);
+
+        //Act
+        testRequestQueueNotifier.onStatusChanged(new TestRequestStatusChangedEvent(testRequest, null, RequestStatus.INITIATED, new User()));
+        testRequestQueueNotifier.onStatusChanged(new TestRequestStatusChangedEvent(testRequest, RequestStatus.INITIATED, RequestStatus.LAB_TEST_IN_PROGRESS, new User()));
+        testRequestQueueNotifier.onStatusChanged(new TestRequestStatusChangedEvent(testRequest, RequestStatus.LAB_TEST_IN_PROGRESS, RequestStatus.LAB_TEST_COMPLETED, new User()));
+
+        //Assert
+        assertThat(tester.next(), containsString("event:added"));
+        String claimed = tester.next();
+        assertThat(claimed, containsString("event:claimed"));
+        assertThat(claimed, containsString("\"requestId\":42"));
+        String added = doctor.next();
+        assertThat(added, containsString("\"name\":\"someuser\""));
+        assertThat(added, containsString("\"labResult\":{\"result\":\"POSITIVE\"}"));
+        assertThat(added, not(containsString("not in the summary")));
+        assertNull(tester.events.poll(100, TimeUnit.MILLISECONDS));
+
+    }
+
+    @Test
+    public void subscriber_that_fails_to_receive_should_be_dropped() throws Exception {
+
+        //Arrange
+        RecordingEmitter broken = new RecordingEmitter(true);
+        testRequestQueueNotifier.register(RequestStatus.INITIATED, broken);
+        RecordingEmitter healthy = record(RequestStatus.INITIATED);
+
+        //Act
+        testRequestQueueNotifier.onStatusChanged(new TestRequestStatusChangedEvent(testRequest, null, RequestStatus.INITIATED, new User()));
+        healthy.next();
+
+        //Assert
+        assertEquals(1, awaitSubscriberCount(RequestStatus.INITIATED, 1));
+
+    }
+
+    @Test
+    public void slow_subscriber_should_not_delay_others_and_be_closed_when_its_buffer_is_full() throws Exception {
+
+        //Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(false) {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(builder);
+            }
+        };
+        testRequestQueueNotifier.register(RequestStatus.INITIATED, slow);
+        RecordingEmitter healthy = record(RequestStatus.INITIATED);
+
+        //Act
+        for (int i = 0; i <= TestRequestQueueNotifier.SUBSCRIBER_BUFFER + 1; i++)
+            testRequestQueueNotifier.onStatusChanged(new TestRequestStatusChangedEvent(testRequest, null, RequestStatus.INITIATED, new User()));
+        String first = healthy.next();
+        release.countDown();
+
+        //Assert
+        assertThat(first, containsString("event:added"));
+        assertEquals(1, testRequestQueueNotifier.subscriberCount(RequestStatus.INITIATED));
+
+    }
+
+    // the broken subscriber is removed by its own sender task, which may still be running
+    int awaitSubscriberCount(RequestStatus queue, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (testRequestQueueNotifier.subscriberCount(queue) != expected && System.nanoTime() < deadline)
+            Thread.sleep(10);
+        return testRequestQueueNotifier.subscriberCount(queue);
+    }
+
+    RecordingEmitter record(RequestStatus queue) {
+        RecordingEmitter emitter = new RecordingEmitter(false);
+        testRequestQueueNotifier.register(queue, emitter);
+        return emitter;
+    }
+
+    static class RecordingEmitter extends SseEmitter {
+
+        final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        final boolean broken;
+
+        RecordingEmitter(boolean broken) {
+            this.broken = broken;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (broken)
+                throw new IOException("client went away");
+            events.add(builder.build().stream().map(data -> data.getData().toString()).collect(Collectors.joining()));
+        }
+
+        String next() throws InterruptedException {
+            return events.poll(5, TimeUnit.SECONDS);
+        }
+    }
+
+}
@@ -0,0 +1,107 @@
+package org.upgrad.upstac.testrequests;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TestRequestTurnaroundMetricsTest {
+
+    TestRequestTurnaroundMetrics testRequestTurnaroundMetrics;
+    MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+
+        // histogram buckets are only kept by registries with aggregable percentiles, as in production
+        meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", meterRegistry);
+        ObjectProvider<MeterRegistry> provider = beanFactory.getBeanProvider(MeterRegistry.class);
+
+        testRequestTurnaroundMetrics = new TestRequestTurnaroundMetrics();
+        ReflectionTestUtils.setField(testRequestTurnaroundMetrics, "meterRegistry", provider);
+        ReflectionTestUtils.setField(testRequestTurnaroundMetrics, "windowMinutes", 60L);
+        testRequestTurnaroundMetrics.register();
+    }
+
+    @Test
+    public void onStatusChanged_should_record_wait_per_edge() {
+
+        //Arrange
+        TestRequest testRequest = new TestRequest();
+
+        //Act
+        for (int seconds = 1; seconds <= 100; seconds++)
+            testRequestTurnaroundMetrics.onStatusChanged(new TestRequestStatusChangedEvent(testRequest, RequestStatus.INITIATED, RequestStatus.LAB_TEST_IN_PROGRESS, null, Duration.ofSeconds(seconds)));
+        testRequestTurnaroundMetrics.onStatusChanged(new TestRequestStatusChangedEvent(testRequest, null, RequestStatus.INITIATED, null));
+
+        //Assert
+        TransitionLatency result = testRequestTurnaroundMetrics.getLatencies().get(0);
+        assertEquals(RequestStatus.INITIATED, result.getFromStatus());
+        assertEquals(100, result.getCount());
+        assertThat(result.getP50Millis(), closeTo(50_000, 2_000));
+        assertThat(result.getMaxMillis(), closeTo(100_000, 1));
+        assertEquals(100, meterRegistry.get(TestRequestTurnaroundMetrics.WAIT_TIMER).tag("from", "INITIATED").tag("to", "LAB_TEST_IN_PROGRESS").timer().count());
+
+    }
+
+    @Test
+    public void wait_timers_should_publish_only_buckets_between_a_minute_and_a_week() {
+
+        //Arrange
+        TestRequest testRequest = new TestRequest();
+
+        //Act
+        for (int hours = 1; hours <= 10; hours++)
+            testRequestTurnaroundMetrics.onStatusChanged(new TestRequestStatusChangedEvent(testRequest, RequestStatus.LAB_TEST_COMPLETED, RequestStatus.DIAGNOSIS_IN_PROCESS, null, Duration.ofHours(hours)));
+
+        //Assert
+        HistogramSnapshot snapshot = meterRegistry.get(TestRequestTurnaroundMetrics.WAIT_TIMER).tag("from", "LAB_TEST_COMPLETED").timer().takeSnapshot();
+        CountAtBucket[] buckets = snapshot.histogramCounts();
+        assertThat(buckets[0].bucket(TimeUnit.MILLISECONDS), greaterThanOrEqualTo((double) Duration.ofMinutes(1).toMillis()));
+        assertThat(buckets[buckets.length - 1].bucket(TimeUnit.MILLISECONDS), lessThanOrEqualTo((double) Duration.ofDays(7).toMillis()));
+        assertEquals(0, snapshot.percentileValues().length);
+        TransitionLatency result = testRequestTurnaroundMetrics.getLatencies().get(3);
+        assertThat(result.getP90Millis(), closeTo(Duration.ofHours(9).toMillis(), Duration.ofHours(1).toMillis()));
+
+    }
+
+    @Test
+    public void onStatusChanged_to_completed_should_record_turnaround_from_creation() {
+
+        //Arrange
+        TestRequest testRequest = new TestRequest();
+        testRequest.setCreatedAt(Instant.now().minus(Duration.ofHours(2)));
+
+        //Act
+        testRequestTurnaroundMetrics.onStatusChanged(new TestRequestStatusChangedEvent(testRequest, RequestStatus.DIAGNOSIS_IN_PROCESS, RequestStatus.COMPLETED, null, Duration.ofMinutes(10)));
+
+        //Assert
+        List<TransitionLatency> result = testRequestTurnaroundMetrics.getLatencies();
+        TransitionLatency turnaround = result.get(result.size() - 1);
+        assertNull(turnaround.getFromStatus());
+        assertEquals(1, turnaround.getCount());
+        assertThat(turnaround.getMaxMillis(), closeTo(Duration.ofHours(2).toMillis(), 1_000));
+
+    }
+
+}
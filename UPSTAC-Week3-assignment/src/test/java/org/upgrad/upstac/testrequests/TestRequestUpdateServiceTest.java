@@ -0,0 +1,347 @@
+package org.upgrad.upstac.testrequests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.upgrad.upstac.exception.AppException;
+import org.upgrad.upstac.testrequests.consultation.ConsultationService;
+import org.upgrad.upstac.testrequests.flow.TestRequestFlowRepository;
+import org.upgrad.upstac.testrequests.flow.TestRequestFlowService;
+import org.upgrad.upstac.testrequests.flow.TestRequestFlowWriter;
+import org.upgrad.upstac.testrequests.lab.CreateLabResult;
+import org.upgrad.upstac.testrequests.lab.LabResult;
+import org.upgrad.upstac.testrequests.lab.LabResultRepository;
+import org.upgrad.upstac.testrequests.lab.LabResultService;
+import org.upgrad.upstac.testrequests.lab.LabTestLeaseReaper;
+import org.upgrad.upstac.testrequests.lab.TestStatus;
+import org.upgrad.upstac.users.User;
+import org.upgrad.upstac.users.UserRepository;
+import org.upgrad.upstac.users.models.AccountStatus;
+import org.upgrad.upstac.users.models.Gender;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({TestRequestUpdateService.class, TestRequestClaimer.class, LabQueueRouter.class, LabTestLeaseReaper.class, ActiveContactService.class, LabResultService.class, ConsultationService.class, TestRequestFlowService.class, TestRequestFlowWriter.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TestRequestUpdateServiceTest {
+
+    static final int THREAD_COUNT = 64;
+
+    @Autowired
+    TestRequestUpdateService testRequestUpdateService;
+
+    @Autowired
+    TestRequestRepository testRequestRepository;
+
+    @Autowired
+    LabResultRepository labResultRepository;
+
+    @Autowired
+    TestRequestFlowRepository testRequestFlowRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    LabTestLeaseReaper labTestLeaseReaper;
+
+    @Autowired
+    LabResultService labResultService;
+
+    @Autowired
+    LabQueueRouter labQueueRouter;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    User tester;
+    TestRequest testRequest;
+
+    @BeforeEach
+    public void setUp() {
+
+        String suffix = String.valueOf(System.nanoTime());
+        tester = createUser("tester" + suffix);
+        testRequest = createTestRequest(createUser("user" + suffix));
+    }
+
+    @Test
+    public void assignForLabTest_called_concurrently_should_let_exactly_one_caller_win() throws Exception {
+
+        //Arrange
+        ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> outcomes = new ArrayList<>();
+
+        Callable<Boolean> assign = () -> {
+            start.await();
+            try {
+                testRequestUpdateService.assignForLabTest(testRequest.getRequestId(), tester);
+                return true;
+            } catch (AppException e) {
+                return false;
+            }
+        };
+
+        //Act
+        for (int i = 0; i < THREAD_COUNT; i++)
+            outcomes.add(executorService.submit(assign));
+        start.countDown();
+
+        int winners = 0;
+        for (Future<Boolean> outcome : outcomes)
+            if (outcome.get())
+                winners++;
+        executorService.shutdown();
+
+        //Assert
+        assertEquals(1, winners);
+        assertEquals(RequestStatus.LAB_TEST_IN_PROGRESS, testRequestRepository.findByRequestId(testRequest.getRequestId()).get().getStatus());
+        assertEquals(1, labResultRepository.findByTester(tester).size());
+        assertEquals(1, testRequestFlowRepository.findByRequest(testRequest).size());
+
+    }
+
+    @Test
+    public void assignForLabTest_should_move_status_entry_time_to_now() {
+
+        //Arrange
+        Instant before = Instant.now();
+
+        //Act
+        testRequestUpdateService.assignForLabTest(testRequest.getRequestId(), tester);
+
+        //Assert
+        Instant result = testRequestRepository.findByRequestId(testRequest.getRequestId()).get().getStatusChangedAt();
+        assertFalse(result.isBefore(before));
+
+    }
+
+    @Test
+    public void updateLabTest_on_request_in_wrong_state_should_throw_error_and_leave_status_unchanged() {
+
+        //Arrange
+        Long id = testRequest.getRequestId();
+
+        //Act
+        AppException result = assertThrows(AppException.class, () -> {
+            testRequestUpdateService.updateLabTest(id, null, tester);
+        });
+
+        //Assert
+        assertEquals("Invalid ID or State", result.getMessage());
+        assertEquals(RequestStatus.INITIATED, testRequestRepository.findByRequestId(id).get().getStatus());
+
+    }
+
+    @Test
+    public void claimNextForLabTest_called_concurrently_should_hand_out_each_request_once() throws Exception {
+
+        //Arrange
+        User user = createUser("claimer" + System.nanoTime());
+        for (int i = 0; i < THREAD_COUNT; i++)
+            createTestRequest(user);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Optional<Long>>> outcomes = new ArrayList<>();
+
+        Callable<Optional<Long>> claim = () -> {
+            start.await();
+            try {
+                return testRequestUpdateService.claimNextForLabTest(tester).map(TestRequest::getRequestId);
+            } catch (AppException e) {
+                return Optional.empty();
+            }
+        };
+
+        //Act
+        for (int i = 0; i < THREAD_COUNT; i++)
+            outcomes.add(executorService.submit(claim));
+        start.countDown();
+
+        Set<Long> claimed = new HashSet<>();
+        int winners = 0;
+        for (Future<Optional<Long>> outcome : outcomes)
+            if (outcome.get().isPresent()) {
+                claimed.add(outcome.get().get());
+                winners++;
+            }
+        executorService.shutdown();
+
+        //Assert
+        assertTrue(winners > 0);
+        assertEquals(winners, claimed.size());
+        assertEquals(winners, labResultRepository.findByTester(tester).size());
+        for (Long id : claimed)
+            assertEquals(RequestStatus.LAB_TEST_IN_PROGRESS, testRequestRepository.findByRequestId(id).get().getStatus());
+
+    }
+
+    @Test
+    public void releaseExpiredLeases_should_return_abandoned_lab_test_to_queue() {
+
+        //Arrange
+        Long id = testRequest.getRequestId();
+        testRequestUpdateService.assignForLabTest(id, tester);
+        LabResult labResult = labResultRepository.findByTester(tester).get(0);
+        labResult.setAssignedAt(Instant.now().minus(Duration.ofHours(2)));
+        labResultRepository.save(labResult);
+        ReflectionTestUtils.setField(labTestLeaseReaper, "leaseTimeoutMinutes", 60L);
+
+        //Act
+        labTestLeaseReaper.releaseExpiredLeases();
+
+        //Assert
+        assertEquals(RequestStatus.INITIATED, testRequestRepository.findByRequestId(id).get().getStatus());
+        assertTrue(labResultRepository.findByTester(tester).isEmpty());
+        assertFalse(testRequestUpdateService.releaseLabTest(labResult));
+
+    }
+
+    @Test
+    public void updateLabTest_should_fill_in_the_assigned_lab_result() {
+
+        //Arrange
+        Long id = testRequest.getRequestId();
+        testRequestUpdateService.assignForLabTest(id, tester);
+
+        //Act
+        testRequestUpdateService.updateLabTest(id, createLabResult(), tester);
+
+        //Assert
+        List<LabResult> result = labResultRepository.findByTester(tester);
+        assertEquals(1, result.size());
+        assertEquals(TestStatus.NEGATIVE, result.get(0).getResult());
+        assertEquals(Short.valueOf((short) 120), result.get(0).getSystolicPressure());
+        assertEquals(new BigDecimal("98.0"), result.get(0).getBodyTemperature());
+        assertEquals(RequestStatus.LAB_TEST_COMPLETED, testRequestRepository.findByRequestId(id).get().getStatus());
+
+    }
+
+    @Test
+    public void compactDuplicates_should_merge_second_lab_result_into_the_assigned_one() {
+
+        //Arrange
+        testRequestUpdateService.assignForLabTest(testRequest.getRequestId(), tester);
+        // H2 backs the request foreign key with the unique index, so both go to recreate the old schema
+        String foreignKey = jdbcTemplate.queryForObject("select constraint_name from information_schema.constraints" +
+                " where table_name = 'LAB_RESULT' and constraint_type = 'REFERENTIAL' and column_list = 'REQUEST_REQUEST_ID'", String.class);
+        jdbcTemplate.execute("alter table lab_result drop constraint " + foreignKey);
+        jdbcTemplate.execute("alter table lab_result drop constraint uk_lab_result_request");
+        LabResult duplicate = new LabResult();
+        duplicate.setRequest(testRequest);
+        duplicate.setResult(TestStatus.POSITIVE);
+        duplicate.setComments("duplicate");
+        labResultRepository.save(duplicate);
+
+        //Act
+        int removed = labResultService.compactDuplicates();
+        jdbcTemplate.execute("alter table lab_result add constraint uk_lab_result_request unique (request_request_id)");
+        jdbcTemplate.execute("alter table lab_result add constraint " + foreignKey + " foreign key (request_request_id) references test_request");
+
+        //Assert
+        assertEquals(1, removed);
+        List<LabResult> result = labResultRepository.findByTester(tester);
+        assertEquals(1, result.size());
+        assertEquals(TestStatus.POSITIVE, result.get(0).getResult());
+        assertEquals("duplicate", result.get(0).getComments());
+        assertEquals(0, labResultService.compactDuplicates());
+        LabResult another = new LabResult();
+        another.setRequest(testRequest);
+        assertThrows(DataIntegrityViolationException.class, () -> {
+            labResultRepository.save(another);
+        });
+
+    }
+
+    @Test
+    public void claimNextForLabTest_with_pin_code_routing_should_only_claim_requests_in_the_testers_area() {
+
+        //Arrange
+        tester.setPinCode(400001);
+        TestRequest inArea = createTestRequest(createUser("routed" + System.nanoTime()));
+        inArea.setPinCode(400050);
+        testRequestRepository.save(inArea);
+        ReflectionTestUtils.setField(labQueueRouter, "mode", LabQueueRouting.PIN_CODE);
+
+        try {
+            //Act
+            Optional<TestRequest> first = testRequestUpdateService.claimNextForLabTest(tester);
+            Optional<TestRequest> second = testRequestUpdateService.claimNextForLabTest(tester);
+
+            //Assert
+            assertEquals(inArea.getRequestId(), first.get().getRequestId());
+            assertFalse(second.isPresent());
+            assertThrows(AppException.class, () -> {
+                testRequestUpdateService.assignForLabTest(testRequest.getRequestId(), tester);
+            });
+            assertEquals(RequestStatus.INITIATED, testRequestRepository.findByRequestId(testRequest.getRequestId()).get().getStatus());
+        } finally {
+            ReflectionTestUtils.setField(labQueueRouter, "mode", LabQueueRouting.NATIONAL);
+        }
+
+    }
+
+    CreateLabResult createLabResult() {
+        CreateLabResult createLabResult = new CreateLabResult();
+        createLabResult.setBloodPressure("120");
+        createLabResult.setHeartBeat("72");
+        createLabResult.setTemperature("98");
+        createLabResult.setResult(TestStatus.NEGATIVE);
+        return createLabResult;
+    }
+
+    User createUser(String userName) {
+        User user = new User();
+        user.setUserName(userName);
+        user.setEmail(userName + "@upgrad.com");
+        user.setPhoneNumber(userName);
+        user.setStatus(AccountStatus.APPROVED);
+        return userRepository.save(user);
+    }
+
+    TestRequest createTestRequest(User user) {
+        TestRequest testRequest = new TestRequest();
+        testRequest.setName("someuser");
+        testRequest.setCreated(LocalDate.now());
+        testRequest.setStatus(RequestStatus.INITIATED);
+        testRequest.setStatusChangedAt(Instant.now().minus(Duration.ofMinutes(5)));
+        testRequest.setAge(40);
+        testRequest.setEmail("someone@somedomain.com");
+        testRequest.setPhoneNumber("123456789");
+        testRequest.setPinCode(716768);
+        testRequest.setGender(Gender.MALE);
+        testRequest.setCreatedBy(user);
+        return testRequestRepository.save(testRequest);
+    }
+
+}
@@ -0,0 +1,120 @@
+package org.upgrad.upstac.testrequests.flow;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.cache.CacheType;
+import org.springframework.boot.test.autoconfigure.core.AutoConfigureCache;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.upgrad.upstac.testrequests.RequestStatus;
+import org.upgrad.upstac.testrequests.TestRequest;
+import org.upgrad.upstac.testrequests.TestRequestRepository;
+import org.upgrad.upstac.users.User;
+import org.upgrad.upstac.users.UserRepository;
+import org.upgrad.upstac.users.models.AccountStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureCache(cacheProvider = CacheType.CAFFEINE)
+@Import({TestRequestFlowService.class, TestRequestFlowWriter.class, TestRequestFlowCacheConfig.class})
+class TestRequestFlowServiceTest {
+
+    @Autowired
+    TestRequestFlowService testRequestFlowService;
+
+    @Autowired
+    TestRequestRepository testRequestRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    User tester;
+
+    @BeforeEach
+    public void setUp() {
+
+        tester = new User();
+        tester.setUserName("tester" + System.nanoTime());
+        tester.setStatus(AccountStatus.APPROVED);
+        tester = userRepository.save(tester);
+    }
+
+    @Test
+    public void findTimelineFor_should_return_entries_in_order_with_changer() {
+
+        //Arrange
+        TestRequest testRequest = createTestRequest(RequestStatus.INITIATED);
+        testRequestFlowService.log(testRequest, RequestStatus.INITIATED, RequestStatus.LAB_TEST_IN_PROGRESS, tester);
+        testRequestFlowService.log(testRequest, RequestStatus.LAB_TEST_IN_PROGRESS, RequestStatus.INITIATED, null);
+
+        //Act
+        List<TestRequestFlowEntry> result = testRequestFlowService.findTimelineFor(testRequest);
+
+        //Assert
+        assertEquals(2, result.size());
+        assertEquals(RequestStatus.LAB_TEST_IN_PROGRESS, result.get(0).getToStatus());
+        assertEquals(tester.getUserName(), result.get(0).getChangedBy().getUserName());
+        assertEquals(LocalDate.now(), result.get(0).getHappenedOn());
+        assertNull(result.get(1).getChangedBy());
+
+    }
+
+    @Test
+    public void findTimelineFor_should_cache_only_completed_requests() {
+
+        //Arrange
+        TestRequest completed = createTestRequest(RequestStatus.COMPLETED);
+        TestRequest inProgress = createTestRequest(RequestStatus.LAB_TEST_IN_PROGRESS);
+        testRequestFlowService.log(completed, RequestStatus.DIAGNOSIS_IN_PROCESS, RequestStatus.COMPLETED, tester);
+        testRequestFlowService.log(inProgress, RequestStatus.INITIATED, RequestStatus.LAB_TEST_IN_PROGRESS, tester);
+
+        //Act
+        List<TestRequestFlowEntry> first = testRequestFlowService.findTimelineFor(completed);
+        List<TestRequestFlowEntry> second = testRequestFlowService.findTimelineFor(completed);
+        testRequestFlowService.findTimelineFor(inProgress);
+        testRequestFlowService.log(inProgress, RequestStatus.LAB_TEST_IN_PROGRESS, RequestStatus.LAB_TEST_COMPLETED, tester);
+
+        //Assert
+        assertSame(first, second);
+        assertEquals(2, testRequestFlowService.findTimelineFor(inProgress).size());
+
+    }
+
+    @Test
+    public void findTimelineFor_should_not_cache_completed_request_before_its_completed_entry_is_written() {
+
+        //Arrange
+        TestRequest completed = createTestRequest(RequestStatus.COMPLETED);
+        testRequestFlowService.log(completed, RequestStatus.LAB_TEST_COMPLETED, RequestStatus.DIAGNOSIS_IN_PROCESS, tester);
+
+        //Act
+        List<TestRequestFlowEntry> beforeWrite = testRequestFlowService.findTimelineFor(completed);
+        testRequestFlowService.log(completed, RequestStatus.DIAGNOSIS_IN_PROCESS, RequestStatus.COMPLETED, tester);
+        List<TestRequestFlowEntry> afterWrite = testRequestFlowService.findTimelineFor(completed);
+
+        //Assert
+        assertEquals(1, beforeWrite.size());
+        assertEquals(2, afterWrite.size());
+        assertSame(afterWrite, testRequestFlowService.findTimelineFor(completed));
+
+    }
+
+    TestRequest createTestRequest(RequestStatus status) {
+        TestRequest testRequest = new TestRequest();
+        testRequest.setName("someuser");
+        testRequest.setCreated(LocalDate.now());
+        testRequest.setStatus(status);
+        testRequest.setCreatedBy(tester);
+        return testRequestRepository.save(testRequest);
+    }
+
+}
@@ -0,0 +1,139 @@
+package org.upgrad.upstac.testrequests.flow;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.upgrad.upstac.testrequests.RequestStatus;
+import org.upgrad.upstac.testrequests.TestRequest;
+import org.upgrad.upstac.testrequests.TestRequestRepository;
+import org.upgrad.upstac.users.User;
+import org.upgrad.upstac.users.UserRepository;
+import org.upgrad.upstac.users.models.AccountStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {"flow-log.mode=ASYNC", "flow-log.batch-size=50", "flow-log.retry-backoff-ms=10"})
+@Import({TestRequestFlowService.class, TestRequestFlowWriter.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TestRequestFlowWriterTest {
+
+    @Autowired
+    TestRequestFlowService testRequestFlowService;
+
+    @Autowired
+    TestRequestFlowRepository testRequestFlowRepository;
+
+    @Autowired
+    TestRequestRepository testRequestRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    TestRequestFlowWriter testRequestFlowWriter;
+
+    User user;
+    TestRequest testRequest;
+
+    @BeforeEach
+    public void setUp() {
+
+        user = new User();
+        user.setUserName("user" + System.nanoTime());
+        user.setStatus(AccountStatus.APPROVED);
+        user = userRepository.save(user);
+
+        testRequest = new TestRequest();
+        testRequest.setName("someuser");
+        testRequest.setCreated(LocalDate.now());
+        testRequest.setCreatedBy(user);
+        testRequest = testRequestRepository.save(testRequest);
+    }
+
+    @Test
+    public void log_in_async_mode_should_write_committed_entries_in_background() throws Exception {
+
+        //Act
+        for (int i = 0; i < 120; i++)
+            testRequestFlowService.log(testRequest, RequestStatus.INITIATED, RequestStatus.LAB_TEST_IN_PROGRESS, user);
+
+        //Assert
+        List<TestRequestFlow> result = awaitFlows(120);
+        assertEquals(120, result.size());
+        assertEquals(user.getId(), result.get(0).getChangedBy().getId());
+        assertEquals(RequestStatus.LAB_TEST_IN_PROGRESS, result.get(0).getToStatus());
+
+    }
+
+    @Test
+    public void log_in_async_mode_should_drop_entries_of_rolled_back_transaction() throws Exception {
+
+        //Act
+        transactionTemplate.execute(status -> {
+            testRequestFlowService.log(testRequest, RequestStatus.INITIATED, RequestStatus.LAB_TEST_IN_PROGRESS, user);
+            status.setRollbackOnly();
+            return null;
+        });
+        testRequestFlowService.log(testRequest, RequestStatus.LAB_TEST_IN_PROGRESS, RequestStatus.LAB_TEST_COMPLETED, user);
+
+        //Assert
+        List<TestRequestFlow> result = awaitFlows(1);
+        assertEquals(1, result.size());
+        assertEquals(RequestStatus.LAB_TEST_COMPLETED, result.get(0).getToStatus());
+
+    }
+
+    @Test
+    public void log_in_async_mode_should_write_the_rest_of_a_failed_batch_and_count_the_bad_entry() throws Exception {
+
+        //Arrange
+        TestRequest deleted = new TestRequest();
+        deleted.setRequestId(Long.MAX_VALUE);
+        double droppedBefore = testRequestFlowWriter.dropped.count();
+
+        //Act
+        transactionTemplate.execute(status -> {
+            testRequestFlowService.log(testRequest, RequestStatus.INITIATED, RequestStatus.LAB_TEST_IN_PROGRESS, user);
+            testRequestFlowService.log(deleted, RequestStatus.INITIATED, RequestStatus.LAB_TEST_IN_PROGRESS, user);
+            testRequestFlowService.log(testRequest, RequestStatus.LAB_TEST_IN_PROGRESS, RequestStatus.LAB_TEST_COMPLETED, user);
+            return null;
+        });
+
+        //Assert
+        List<TestRequestFlow> result = awaitFlows(2);
+        assertEquals(2, result.size());
+        assertEquals(droppedBefore + 1, testRequestFlowWriter.dropped.count());
+
+    }
+
+    List<TestRequestFlow> awaitFlows(int expected) throws InterruptedException {
+
+        long deadline = System.currentTimeMillis() + 5000;
+        List<TestRequestFlow> flows = testRequestFlowRepository.findByRequest(testRequest);
+        while (flows.size() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            flows = testRequestFlowRepository.findByRequest(testRequest);
+        }
+        Thread.sleep(200);
+        flows = testRequestFlowRepository.findByRequest(testRequest);
+        assertTrue(flows.size() >= expected);
+        return flows;
+    }
+
+}
@@ -0,0 +1,113 @@
+package org.upgrad.upstac.users;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.upgrad.upstac.users.models.AccountStatus;
+import org.upgrad.upstac.users.models.UpdateUserDetailRequest;
+import org.upgrad.upstac.users.roles.RoleService;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+
+@SpringBootTest(classes = UserService.class)
+@EnableCaching
+@ImportAutoConfiguration(CacheAutoConfiguration.class)
+class UserServiceCacheTest {
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @MockBean
+    UserRepository userRepository;
+
+    @MockBean
+    RoleService roleService;
+
+    @MockBean
+    BCryptPasswordEncoder bCryptPasswordEncoder;
+
+    User user;
+
+    @BeforeEach
+    public void setUp() {
+
+        cacheManager.getCache(UserService.USER_CACHE).clear();
+
+        user = new User();
+        user.setId(1L);
+        user.setUserName("someuser");
+        user.setStatus(AccountStatus.APPROVED);
+        Mockito.when(userRepository.findByUserName("someuser")).thenReturn(user);
+        Mockito.when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    public void findByUserName_called_twice_should_load_user_once() {
+
+        //Act
+        User first = userService.findByUserName("someuser");
+        User second = userService.findByUserName("someuser");
+
+        //Assert
+        assertSame(first, second);
+        Mockito.verify(userRepository, Mockito.times(1)).findByUserName("someuser");
+
+    }
+
+    @Test
+    public void findByUserName_with_unknown_user_should_not_cache_null() {
+
+        //Act
+        User result = userService.findByUserName("unknown");
+        userService.findByUserName("unknown");
+
+        //Assert
+        assertNull(result);
+        Mockito.verify(userRepository, Mockito.times(2)).findByUserName("unknown");
+
+    }
+
+    @Test
+    public void updateUserDetails_should_evict_cached_user() {
+
+        //Arrange
+        userService.findByUserName("someuser");
+
+        //Act
+        userService.updateUserDetails(user, new UpdateUserDetailRequest());
+        userService.findByUserName("someuser");
+
+        //Assert
+        Mockito.verify(userRepository, Mockito.times(2)).findByUserName("someuser");
+
+    }
+
+    @Test
+    public void updateStatusAndSave_should_evict_cached_user() {
+
+        //Arrange
+        userService.findByUserName("someuser");
+
+        //Act
+        userService.updateStatusAndSave(user, AccountStatus.DELETED);
+        userService.findByUserName("someuser");
+
+        //Assert
+        Mockito.verify(userRepository, Mockito.times(2)).findByUserName("someuser");
+
+    }
+
+}
@@ -7,11 +7,12 @@ import {
 } from "../../../src/testrequests/testRequestDispatcher";
 import {getTestFlowResponse} from "../data/testrequest-flows";
 
-export function setupMocksForTestFlow(testRequestId) {
+export function setupMocksForTestFlow(testRequestId, testRequest) {
 
     const inputUrl = doGetTestRequestFlowBaseUrl  + testRequestId;
     console.log("mock url" + inputUrl)
     mockGet(inputUrl, getTestFlowResponse())
+    mockGet(doGetTestRequestByIDBaseUrl + testRequestId, testRequest)
 }
 
 export function setupMocksForCreateTestRequest(name) {
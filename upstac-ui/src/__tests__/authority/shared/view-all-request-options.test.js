@@ -45,7 +45,7 @@ describe('View All Request Options Tests', () => {
         const options = getRequestHistoryOptions(items);
 
         const dataIndex=0
-        setupMocksForTestFlow(2)
+        setupMocksForTestFlow(2, items[dataIndex])
             const rowData =['a','b'];
             const rowMeta ={dataIndex};
 
@@ -32,7 +32,7 @@ describe('Testflow tests', () => {
 
 
         const testRequest = createCompletedWith(2, "Zinda")
-        setupMocksForTestFlow(2)
+        setupMocksForTestFlow(2, testRequest)
 
 
         const mountedComponent = mountComponentWithStoreAndHistory(<TestFlow testRequest={testRequest}></TestFlow>,
@@ -57,7 +57,7 @@ describe('Testflow tests', () => {
 
 
         const testRequest = createRequestWith(2, "Zinda","DIAGNOSIS_IN_PROCESS")
-        setupMocksForTestFlow(2)
+        setupMocksForTestFlow(2, testRequest)
 
 
         const mountedComponent = mountComponentWithStoreAndHistory(<TestFlow testRequest={testRequest}></TestFlow>,
@@ -80,7 +80,7 @@ describe('Testflow tests', () => {
 
 
         const testRequest = createRequestWith(2, "Zinda","INITIATED")
-        setupMocksForTestFlow(2)
+        setupMocksForTestFlow(2, testRequest)
 
 
         const mountedComponent = mountComponentWithStoreAndHistory(<TestFlow testRequest={testRequest}></TestFlow>,
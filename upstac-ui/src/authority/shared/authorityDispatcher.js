@@ -30,7 +30,7 @@ export const doGetThresholds = () => {
 export const doGetAllTestRequests = (thresholds) => {
 
 
-    return http.get(doGetAllTestRequestsUrl).pipe(
+    return http.getAllPages(doGetAllTestRequestsUrl).pipe(
         map((items) =>   {
 
 
@@ -66,7 +66,7 @@ export const doGetAnalytics = () => {
 export const doGetAnalyticsFromThresholds = (thresholds) => {
 
 
-    return http.get(doGetAllTestRequestsUrl).pipe(
+    return http.getAllPages(doGetAllTestRequestsUrl).pipe(
         map((items) =>   getAllDataWithPinCodes(items,thresholds))
     );
 }
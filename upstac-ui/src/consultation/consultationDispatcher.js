@@ -13,7 +13,7 @@ export const doGetMyConsultationHistory = () => {
 
 }
 export const doGetPendingConsultations = () => {
-    return http.get(doGetPendingConsultationsUrl);
+    return http.getAllPages(doGetPendingConsultationsUrl);
 
 
 }
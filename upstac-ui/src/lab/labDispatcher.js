@@ -15,7 +15,7 @@ export const doGetMyLabHistory = () => {
 export const doGetPendingTestRequests = () => {
 
 
-    return http.get(doGetPendingTestRequestsUrl);
+    return http.getAllPages(doGetPendingTestRequestsUrl);
 }
 
 
@@ -108,6 +108,45 @@ function makeAsObservable(request) {
 
 }
 
+// Keyset paged lists answer with an X-Next-Cursor header while more rows follow, so keep asking
+// with that cursor and hand the concatenated rows to the subscriber once the last page arrives
+function getAllPages(url) {
+
+    return new Observable((observer) => {
+        loadingIndicator.show();
+        const items = [];
+
+        const fetchPage = (cursor) => {
+            axios({
+                method: 'get',
+                url,
+                params: cursor ? {cursor} : undefined
+            })
+                .then((response) => {
+                    items.push(...response.data);
+                    const nextCursor = response.headers && response.headers['x-next-cursor'];
+                    if (nextCursor)
+                        return fetchPage(nextCursor);
+
+                    loadingIndicator.hide();
+                    observer.next(items);
+                    observer.complete();
+                })
+                .catch((error) => {
+                    console.log("error for",url)
+                    loadingIndicator.hide();
+                    if(error && error.response && error.response.data && error.response.data.message)
+                        observer.error(error.response.data.message);
+                    else
+                        observer.error("Technical error , please try again");
+                });
+        };
+
+        fetchPage(null);
+    });
+
+}
+
 function post(url, data) {
 
     return makeAsObservable({
@@ -146,7 +185,7 @@ function deleteRequest(url) {
 
 }
 
-export default {setToken, delete: deleteRequest, put, get, post,uploadFileToServer,downloadFileFromServer};
+export default {setToken, delete: deleteRequest, put, get, getAllPages, post,uploadFileToServer,downloadFileFromServer};
 // export default function cube() {
 //     return {setToken, delete: deleteRequest, put, get, post};
 // };
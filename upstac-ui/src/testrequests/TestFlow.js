@@ -11,7 +11,7 @@ import {
     TableRow, useEffect,
     useSelector,
 } from "../component"
-import {doGetMyTestRequests, doGetTestRequestFlow} from "./testRequestDispatcher";
+import {doGetTestRequestByID, doGetTestRequestFlow} from "./testRequestDispatcher";
 import {appNotification} from "../shared/notification/app-notification";
 import {useState} from "react";
 import TableHead from "@material-ui/core/TableHead";
@@ -69,14 +69,27 @@ function TestFlow(props) {
     const {requestId} =testRequest
     const [rows,setRows] = useState([])
 
+    // list rows only carry the result and suggestion, so the details wait for the full request
+    const [detail,setDetail] = useState(null)
+
     let labResult=null
     let consultation=null
 
-    if(testRequest.status !== "INITIATED" && testRequest.status !== "LAB_TEST_IN_PROGRESS" )
-        labResult=testRequest.labResult;
+    if(detail && detail.status !== "INITIATED" && detail.status !== "LAB_TEST_IN_PROGRESS" )
+        labResult=detail.labResult;
+
+    if(detail && detail.status === "COMPLETED"  )
+        consultation=detail.consultation;
+
+    function reloadDetail(){
+
+        doGetTestRequestByID(requestId)
+            .subscribe((result) => {
+                setDetail(result)
 
-    if(testRequest.status === "COMPLETED"  )
-        consultation=testRequest.consultation;
+            }, errorHandler)
+
+    }
 
     function reloadRows(){
 
@@ -93,6 +106,7 @@ function TestFlow(props) {
     useEffect(() => {
 
 
+        reloadDetail();
         reloadRows();
 
 